@@ -1,8 +1,7 @@
-import React, { useState, useMemo, useEffect, useCallback, forwardRef } from 'react'
-import { createBooking } from '../../services/booking'
+import React, { useState, useMemo, useEffect, useCallback, useRef, forwardRef } from 'react'
+import { createBooking, getAvailabilityCalendar, newIdempotencyKey } from '../../services/booking'
 import DatePicker from 'react-datepicker'
 import 'react-datepicker/dist/react-datepicker.css'
-import {API_BASE_URL} from "../../config.js";
 
 // ---------- Helpers ----------
 const addMinutesToTime = (timeStr, minutesToAdd) => {
@@ -341,11 +340,20 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
     const [savingAdd, setSavingAdd] = useState(false)
     const [feedback, setFeedback] = useState({ message: '', isError: false })
 
+    // One Idempotency-Key per booking attempt: retrying the same selection after an error reuses it,
+    // a different selection or a booking that went through starts a new one
+    const attemptKeyRef = useRef(null)
+    useEffect(() => {
+        attemptKeyRef.current = null
+    }, [selectedDate, startTime, endTime])
+
     // New state for temporary alert
     const [tempAlert, setTempAlert] = useState(null)
 
-    const [busyIntervals, setBusyIntervals] = useState([])
-    const [busyLoading, setBusyLoading] = useState(false)
+    // { ymd, open }: one bookable flag per slider step of that day; open is null if the fetch failed
+    const [calendar, setCalendar] = useState(null)
+    const [calendarReload, setCalendarReload] = useState(0)
+    const calendarLoading = !!selectedDate && calendar?.ymd !== toYMD(selectedDate)
 
     // ---------- Availability normalization ----------
     const normalizeBackendDayToJs = (d) => {
@@ -471,44 +479,25 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
         [spot, normalizedAvailabilityList]
     )
 
-    // ---------- Busy fetch ----------
+    // ---------- Availability fetch ----------
+    // The server merges the schedule with PENDING/APPROVED bookings into the spot's calendar
     useEffect(() => {
         if (!isOpen || !spot?.id || !selectedDate) return
         const ymd = toYMD(selectedDate)
 
         let cancelled = false
-        const fetchBusy = async () => {
-            setBusyLoading(true)
-            try {
-                const fromStr = `${ymd}T00:00:00`
-                const toStr = `${ymd}T23:59:59`
-
-                const params = new URLSearchParams({ from: fromStr, to: toStr })
-                const token = localStorage.getItem('easypark_token')
-
-                const res = await fetch(`${API_BASE_URL}/api/parking-spots/${spot.id}/busy?${params}`, {
-                    headers: { ...(token ? { Authorization: `Bearer ${token}` } : {}) },
-                })
-
-                if (res.ok) {
-                    const data = await res.json()
-                    if (!cancelled) setBusyIntervals(Array.isArray(data) ? data : [])
-                } else {
-                    if (!cancelled) setBusyIntervals([])
-                }
-            } catch (err) {
-                console.error('Failed to load busy intervals', err)
-                if (!cancelled) setBusyIntervals([])
-            } finally {
-                if (!cancelled) setBusyLoading(false)
-            }
-        }
-
-        fetchBusy()
+        getAvailabilityCalendar(spot.id, ymd, 1, STEP_MIN)
+            .then((open) => {
+                if (!cancelled) setCalendar({ ymd, open })
+            })
+            .catch((err) => {
+                console.error('Failed to load availability', err)
+                if (!cancelled) setCalendar({ ymd, open: null })
+            })
         return () => {
             cancelled = true
         }
-    }, [isOpen, spot, selectedDate])
+    }, [isOpen, spot, selectedDate, calendarReload])
 
     // ---------- Alert Timeout ----------
     useEffect(() => {
@@ -530,28 +519,13 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
         [getDailyLimits]
     )
 
-    const isBookedBusyAtDateTime = useCallback(
+    // Until the day's calendar is in (or if it failed), fall back to the spot's own hours
+    const isUnavailableAt = useCallback(
         (dateObj, timeStr) => {
-            const mins = timeToMins(timeStr)
-            const fullDateTime = dateAtMins(dateObj, mins)
-            return busyIntervals.some((interval) => {
-                const busyStart = new Date(interval.startTime)
-                const busyEnd = new Date(interval.endTime)
-                return fullDateTime >= busyStart && fullDateTime < busyEnd
-            })
-        },
-        [busyIntervals]
-    )
-
-    const hasOverlapForRange = useCallback(
-        (startDT, endDT) => {
-            return busyIntervals.some((interval) => {
-                const bS = new Date(interval.startTime)
-                const bE = new Date(interval.endTime)
-                return startDT < bE && endDT > bS
-            })
+            if (calendar?.ymd !== toYMD(dateObj) || !calendar.open) return isOwnerClosed(dateObj, timeStr)
+            return !calendar.open[Math.floor(timeToMins(timeStr) / STEP_MIN)]
         },
-        [busyIntervals]
+        [calendar, isOwnerClosed]
     )
 
     const isInPastForStart = useCallback((dateObj, timeStr) => {
@@ -568,9 +542,9 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
             if (!selectedDate) return false
             const t = indexToTime(idx)
             if (isInPastForStart(selectedDate, t)) return true
-            return isOwnerClosed(selectedDate, t) || isBookedBusyAtDateTime(selectedDate, t)
+            return isUnavailableAt(selectedDate, t)
         },
-        [selectedDate, isOwnerClosed, isBookedBusyAtDateTime, isInPastForStart]
+        [selectedDate, isUnavailableAt, isInPastForStart]
     )
 
     const canApplyRangeNoRed = useCallback(
@@ -679,9 +653,7 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
                 const isRedAtIndexForDate = (idx) => {
                     const t = indexToTime(idx)
                     if (isInPastForStart(dateObj, t)) return true
-                    if (isOwnerClosed(dateObj, t)) return true
-                    if (isBookedBusyAtDateTime(dateObj, t)) return true
-                    return false
+                    return isUnavailableAt(dateObj, t)
                 }
                 if (e <= s) continue
                 if (isRedAtIndexForDate(s)) continue
@@ -699,7 +671,7 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
             const e0 = clamp(s0 + desiredSteps, 1, maxIndex)
             return { S: s0, E: e0 }
         },
-        [getDailyLimits, isInPastForStart, isOwnerClosed, isBookedBusyAtDateTime]
+        [getDailyLimits, isInPastForStart, isUnavailableAt]
     )
 
     // ---------- Reset Logic ----------
@@ -748,8 +720,8 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
         applyRange(S, E)
         setFeedback({ message: '', isError: false })
 
-        // Ensure we check availability only when busy intervals are fully loaded
-        if (!busyLoading) {
+        // Ensure we check availability only once the day's calendar is loaded
+        if (!calendarLoading) {
             const isValid = canApplyRangeNoRed(S, E)
             if (!isValid) {
                 // Day is full - Trigger logic
@@ -768,7 +740,7 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
                 }
             }
         }
-    }, [selectedDate, isOpen, findFirstAvailableRange, applyRange, busyLoading, canApplyRangeNoRed, isSelectableDate])
+    }, [selectedDate, isOpen, findFirstAvailableRange, applyRange, calendarLoading, canApplyRangeNoRed, isSelectableDate])
 
     // ---------- Price ----------
     useEffect(() => {
@@ -807,7 +779,6 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
         if (isInPastForStart(selectedDate, startTime)) return 'Start time must be in the future.'
         if (isOwnerClosed(selectedDate, startTime) || isOwnerClosed(selectedDate, endTime))
             return 'Selected time is outside operating hours.'
-        if (hasOverlapForRange(s, e)) return 'Selected range overlaps with an existing booking.'
 
         const sI = startIdx ?? timeToIndex(startTime)
         const eI = endIdx ?? timeToIndex(endTime)
@@ -845,7 +816,9 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
             ).padStart(2, '0')}:00`,
         }
 
-        await createBooking(payload)
+        if (!attemptKeyRef.current) attemptKeyRef.current = newIdempotencyKey()
+        await createBooking({ ...payload, idempotencyKey: attemptKeyRef.current })
+        attemptKeyRef.current = null
     }
 
     const handleConfirm = async () => {
@@ -872,7 +845,8 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
         try {
             await doCreateBooking()
             onBooked?.()
-            setBusyIntervals([])
+            setCalendar(null)
+            setCalendarReload((n) => n + 1)
             resetSelection({ dateOverride: startOfDay(new Date()) })
         } catch (e) {
             console.error(e)
@@ -929,9 +903,9 @@ export default function BookParkingModal({ isOpen, onClose, spot, onBooked }) {
                         <span style={legendDot} />
                         Red areas are unavailable (already booked or outside the owner&apos;s hours).
                     </div>
-                    {busyLoading && (
+                    {calendarLoading && (
                         <div style={{ marginTop: 8, fontSize: 12, color: '#64748b', textAlign: 'center' }}>
-                            Loading busy times...
+                            Loading availability...
                         </div>
                     )}
                 </div>
@@ -28,7 +28,7 @@ export default function ChangePasswordPage() {
         const newToken = authResponse?.token
         const user = authResponse?.user
         if (newToken && user) {
-            loginUser({ user, token: newToken })
+            loginUser({ user, token: newToken, refreshToken: authResponse?.refreshToken })
         }
     }
 
@@ -81,7 +81,7 @@ export default function LoginPage() {
                 return
             }
 
-            loginUser({ user: data?.user, token: data?.token })
+            loginUser({ user: data?.user, token: data?.token, refreshToken: data?.refreshToken })
             redirectAfterLogin()
 
         } catch (err) {
@@ -104,7 +104,7 @@ export default function LoginPage() {
                 return
             }
 
-            loginUser({ user: data?.user, token: data?.token })
+            loginUser({ user: data?.user, token: data?.token, refreshToken: data?.refreshToken })
             redirectAfterLogin()
 
         } catch (err) {
@@ -137,7 +137,7 @@ export default function RegisterPage() {
             }
 
             const token = data?.token || null
-            loginUser({ user: data?.user, token })
+            loginUser({ user: data?.user, token, refreshToken: data?.refreshToken })
             nav('/driver')
         } catch (err) {
             setError(err?.message ? `Register error: ${err.message}` : 'Register error.')
@@ -8,11 +8,26 @@ function authHeaders() {
     return token ? { Authorization: `Bearer ${token}` } : {}
 }
 
-export async function createBooking({ parkingId, startTime, endTime }) {
+// crypto.randomUUID only exists in secure contexts (https or localhost), not on http://<LAN ip>;
+// getRandomValues is available everywhere, so build the v4 UUID from it there
+export function newIdempotencyKey() {
+    if (typeof crypto.randomUUID === 'function') {
+        return crypto.randomUUID()
+    }
+    const bytes = crypto.getRandomValues(new Uint8Array(16))
+    bytes[6] = (bytes[6] & 0x0f) | 0x40 // version 4
+    bytes[8] = (bytes[8] & 0x3f) | 0x80 // RFC 4122 variant
+    const hex = Array.from(bytes, (b) => b.toString(16).padStart(2, '0')).join('')
+    return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`
+}
+
+// Pass the same idempotencyKey when retrying one booking attempt; the server then returns the
+// original booking instead of creating a duplicate
+export async function createBooking({ parkingId, startTime, endTime, idempotencyKey = newIdempotencyKey() }) {
     const res = await axios.post(
         `${API_BASE}/api/bookings`,
         { parkingId, startTime, endTime },
-        { headers: authHeaders() },
+        { headers: { ...authHeaders(), 'Idempotency-Key': idempotencyKey } },
     )
     return res.data
 }
@@ -37,6 +52,46 @@ export async function getBusyIntervals(parkingId, from, to) {
     });
     return res.data || [];
 }
+
+// Inverse of the server's AvailabilityBitmap.encode: one entry per cell, true when it is bookable.
+// "runs" is LEB128 run lengths alternating closed/open (closed first), "bitmap" one bit per cell LSB-first
+export function decodeCalendar({ encoding, data, slots }) {
+    const b64 = data.replace(/-/g, '+').replace(/_/g, '/')
+    const bytes = Uint8Array.from(atob(b64 + '='.repeat((4 - (b64.length % 4)) % 4)), (c) => c.charCodeAt(0))
+    const open = new Array(slots).fill(false)
+    if (encoding === 'bitmap') {
+        for (let i = 0; i < slots && (i >> 3) < bytes.length; i++) {
+            open[i] = ((bytes[i >> 3] >> (i & 7)) & 1) === 1
+        }
+        return open
+    }
+    let pos = 0
+    let i = 0
+    let isOpen = false
+    while (i < bytes.length) {
+        let run = 0
+        let shift = 0
+        let b
+        do {
+            b = bytes[i++]
+            run |= (b & 0x7f) << shift
+            shift += 7
+        } while (b & 0x80)
+        if (isOpen) open.fill(true, pos, Math.min(slots, pos + run))
+        pos += run
+        isOpen = !isOpen
+    }
+    return open
+}
+
+// Schedule minus bookings for [from, from + days), merged server-side; the ETag makes refetches cheap
+export async function getAvailabilityCalendar(parkingId, from, days, slotMinutes) {
+    const res = await axios.get(`${API_BASE_URL}/api/parking-spots/${parkingId}/calendar`, {
+        params: { from, days, slotMinutes },
+        headers: authHeaders(),
+    })
+    return decodeCalendar(res.data)
+}
 export async function rateParking(parkingId, rating) {
     const res = await axios.post(
         `${API_BASE}/api/parking-spots/${parkingId}/rate`,
@@ -1,5 +1,9 @@
+import axios from 'axios'
+import { API_BASE_URL } from '../config'
+
 const STORAGE_KEY = 'easypark_user'
 const TOKEN_KEY = 'easypark_token'
+const REFRESH_TOKEN_KEY = 'easypark_refresh_token'
 
 export function getCurrentUser() {
     const raw = localStorage.getItem(STORAGE_KEY)
@@ -32,8 +36,9 @@ export function loginMock({ fullName, roles }) {
 }
 
 // Real login helper (works for email/password + Google login)
-export function loginUser({ user, token }) {
+export function loginUser({ user, token, refreshToken }) {
     if (token) localStorage.setItem(TOKEN_KEY, token)
+    if (refreshToken) localStorage.setItem(REFRESH_TOKEN_KEY, refreshToken)
 
     const role = user?.role
     let roles = ['DRIVER'] // default
@@ -61,8 +66,22 @@ export function loginUser({ user, token }) {
 }
 
 export function logout() {
+    const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY)
+    const token = localStorage.getItem(TOKEN_KEY)
+    if (refreshToken || token) {
+        // Best effort: revoke both tokens server-side, but never block the local logout on it
+        fetch(`${API_BASE_URL}/api/auth/logout`, {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                ...(token ? { Authorization: `Bearer ${token}` } : {}),
+            },
+            body: JSON.stringify({ refreshToken }),
+        }).catch(() => {})
+    }
     localStorage.removeItem(STORAGE_KEY)
     localStorage.removeItem(TOKEN_KEY)
+    localStorage.removeItem(REFRESH_TOKEN_KEY)
     notifyAuthChanged()
 
 }
@@ -70,3 +89,54 @@ export function logout() {
 export const getAuthToken = () => {
     return localStorage.getItem(TOKEN_KEY);
 }
+
+// ============================
+// Access-token refresh
+// ============================
+// Access tokens are short-lived. On a 401 we trade the refresh token for a new pair once and
+// replay the request; concurrent 401s share a single refresh call (the old refresh token is
+// single-use, so a second call with it would sign the user out).
+let refreshInFlight = null
+
+export function refreshAccessToken() {
+    const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY)
+    if (!refreshToken) return Promise.resolve(null)
+
+    if (!refreshInFlight) {
+        refreshInFlight = fetch(`${API_BASE_URL}/api/auth/refresh`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken }),
+        })
+            .then(async (res) => {
+                if (!res.ok) {
+                    logout()
+                    return null
+                }
+                const data = await res.json()
+                loginUser({ user: data?.user, token: data?.token, refreshToken: data?.refreshToken })
+                return data?.token || null
+            })
+            .catch(() => null)
+            .finally(() => {
+                refreshInFlight = null
+            })
+    }
+    return refreshInFlight
+}
+
+axios.interceptors.response.use(
+    (response) => response,
+    async (error) => {
+        const original = error?.config
+        const isAuthCall = original?.url?.includes('/api/auth/')
+        if (error?.response?.status !== 401 || !original || original._retried || isAuthCall) {
+            throw error
+        }
+        original._retried = true
+        const token = await refreshAccessToken()
+        if (!token) throw error
+        original.headers = { ...original.headers, Authorization: `Bearer ${token}` }
+        return axios(original)
+    }
+)
@@ -0,0 +1,149 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback turbo filter that samples or rate-limits high-frequency {@code action=...} log events.
+ * It runs on the calling thread before the message is formatted, so a dropped event costs a
+ * prefix match and a counter update.
+ * <p>
+ * Rules are configured as {@code "<action prefix>:<spec>;..."} where spec is either a sampling
+ * ratio ({@code 0.1}, INFO and below only) or a per-second cap ({@code 20/s}, any level), e.g.
+ * {@code "jwt_auth fail:20/s;parking_search_controller:0.1"}. The prefix is matched against the
+ * log format string after {@code action=}, on a word boundary.
+ */
+public class ActionLogSamplingFilter extends TurboFilter {
+
+    private static final String ACTION_PREFIX = "action=";
+
+    private String rules = "";
+    private List<Rule> parsed = List.of();
+
+    public void setRules(String rules) {
+        this.rules = rules;
+    }
+
+    public List<Rule> getParsedRules() {
+        return parsed;
+    }
+
+    @Override
+    public void start() {
+        try {
+            parsed = parse(rules);
+            super.start();
+        } catch (IllegalArgumentException ex) {
+            addError("Invalid action log sampling rules '" + rules + "': " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || !format.startsWith(ACTION_PREFIX) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        for (Rule rule : parsed) {
+            if (rule.matches(format)) {
+                return rule.admit(level) ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    static List<Rule> parse(String raw) {
+        List<Rule> result = new ArrayList<>();
+        if (raw == null || raw.isBlank()) {
+            return result;
+        }
+        for (String part : raw.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int colon = part.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("expected <action>:<spec> but got '" + part.trim() + "'");
+            }
+            String action = part.substring(0, colon).trim();
+            String spec = part.substring(colon + 1).trim();
+            try {
+                if (spec.endsWith("/s")) {
+                    result.add(new Rule(action, -1, Integer.parseInt(spec.substring(0, spec.length() - 2).trim())));
+                } else {
+                    double ratio = Double.parseDouble(spec);
+                    if (ratio < 0 || ratio > 1) {
+                        throw new IllegalArgumentException("sampling ratio must be between 0 and 1 for '" + action + "'");
+                    }
+                    result.add(new Rule(action, ratio, -1));
+                }
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("invalid spec '" + spec + "' for '" + action + "'");
+            }
+        }
+        return result;
+    }
+
+    public static final class Rule {
+
+        private final String action;
+        private final String formatPrefix;
+        private final double sampleRatio;   // < 0 when this is a rate limit
+        private final int perSecond;        // < 0 when this is a sampling rule
+
+        private final AtomicLong windowSecond = new AtomicLong();
+        private final AtomicInteger windowCount = new AtomicInteger();
+        private final LongAdder dropped = new LongAdder();
+
+        Rule(String action, double sampleRatio, int perSecond) {
+            this.action = action;
+            this.formatPrefix = ACTION_PREFIX + action;
+            this.sampleRatio = sampleRatio;
+            this.perSecond = perSecond;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        boolean matches(String format) {
+            return format.startsWith(formatPrefix)
+                    && (format.length() == formatPrefix.length() || format.charAt(formatPrefix.length()) == ' ');
+        }
+
+        boolean admit(Level level) {
+            boolean admitted = perSecond >= 0 ? withinRate() : sampled(level);
+            if (!admitted) {
+                dropped.increment();
+            }
+            return admitted;
+        }
+
+        private boolean sampled(Level level) {
+            // Warnings and errors are never sampled away, only rate-limited
+            return level.isGreaterOrEqual(Level.WARN) || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+        }
+
+        private boolean withinRate() {
+            long now = System.currentTimeMillis() / 1000;
+            long current = windowSecond.get();
+            if (now != current && windowSecond.compareAndSet(current, now)) {
+                windowCount.set(0);
+            }
+            return windowCount.incrementAndGet() <= perSecond;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Widens bookings.status from the native ENUM older MySQL schemas were created with to the
+ * VARCHAR(16) the entity now maps. ddl-auto=update never changes an existing column's type, and an
+ * ENUM without EXPIRED rejects every update of the pending-expiry job. A no-op once the column is a
+ * VARCHAR and on other databases. Runs before the scheduler starts, and fails startup if the ALTER
+ * does, rather than letting the expiry job fail on every tick.
+ */
+@Component
+public class BookingStatusColumnMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingStatusColumnMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingStatusColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product) && !"MariaDB".equalsIgnoreCase(product)) {
+            return;
+        }
+        List<String> type = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns"
+                        + " WHERE table_schema = DATABASE() AND table_name = 'bookings' AND column_name = 'status'",
+                String.class);
+        if (type.isEmpty() || !"enum".equalsIgnoreCase(type.get(0))) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE bookings MODIFY status VARCHAR(16) NOT NULL");
+            log.info("action=booking_status_column_widen success");
+        } catch (DataAccessException ex) {
+            log.error("action=booking_status_column_widen fail reason={}", ex.getClass().getSimpleName());
+            throw new IllegalStateException(
+                    "bookings.status is still an ENUM; run ALTER TABLE bookings MODIFY status VARCHAR(16) NOT NULL", ex);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.demo.config;
+
+import com.example.demo.security.TokenHashing;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@code Idempotency-Key} support for create endpoints (bookings, payments) that clients retry on
+ * timeouts.
+ * <p>
+ * The first request with a key runs normally and its 2xx response is stored for
+ * {@code app.idempotency.ttl}. A retry with the same key and body gets the stored response back
+ * (with {@code Idempotent-Replayed: true}) before binding, validation or any query runs. Reusing a
+ * key with a different body is rejected with 422, and a retry that arrives while the first request
+ * is still running gets 409. Keys are scoped per user, and requests without the header are untouched.
+ * <p>
+ * Runs after the Spring Security chain, so the user is already known.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final boolean enabled;
+    private final Set<String> routes;
+    private final int maxBodyBytes;
+    private final IdempotencyStore store;
+
+    public IdempotencyFilter(@Value("${app.idempotency.enabled:true}") boolean enabled,
+                             @Value("${app.idempotency.routes:POST /api/bookings;POST /api/payments}") String routes,
+                             @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${app.idempotency.max-entries:100000}") int maxEntries,
+                             @Value("${app.idempotency.max-body-bytes:65536}") int maxBodyBytes) {
+        this.enabled = enabled;
+        this.routes = parseRoutes(routes);
+        this.maxBodyBytes = maxBodyBytes;
+        this.store = new IdempotencyStore(ttl.toNanos(), maxEntries, 64);
+    }
+
+    static Set<String> parseRoutes(String raw) {
+        Set<String> result = new HashSet<>();
+        if (raw == null || raw.isBlank()) {
+            return result;
+        }
+        for (String part : raw.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] methodAndPath = part.trim().split("\\s+");
+            if (methodAndPath.length != 2) {
+                throw new IllegalArgumentException("Idempotency route must look like 'POST /path' but got '" + part.trim() + "'");
+            }
+            result.add(methodAndPath[0].toUpperCase() + " " + methodAndPath[1]);
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || request.getHeader(HEADER) == null
+                || !routes.contains(request.getMethod() + " " + request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof Long userId)) {
+            chain.doFilter(request, response); // let security reject it as usual
+            return;
+        }
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+
+        String route = request.getMethod() + " " + request.getRequestURI();
+        String storeKey = userId + "|" + route + "|" + key;
+        String fingerprint = TokenHashing.sha256(new String(body, StandardCharsets.UTF_8));
+
+        IdempotencyStore.Lookup lookup = store.begin(storeKey, fingerprint);
+        switch (lookup.outcome()) {
+            case REPLAY -> {
+                IdempotencyStore.StoredResponse stored = lookup.response();
+                log.info("action=idempotency replay route={} userId={}", route, userId);
+                response.setStatus(stored.status());
+                if (stored.contentType() != null) {
+                    response.setContentType(stored.contentType());
+                }
+                response.setHeader(REPLAYED_HEADER, "true");
+                response.getOutputStream().write(stored.body());
+                return;
+            }
+            case IN_PROGRESS -> {
+                log.info("action=idempotency conflict route={} userId={} reason=IN_PROGRESS", route, userId);
+                reject(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+                return;
+            }
+            case MISMATCH -> {
+                log.warn("action=idempotency fail route={} userId={} reason=PAYLOAD_MISMATCH", route, userId);
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used with a different request body");
+                return;
+            }
+            case STARTED -> {
+                // run below
+            }
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                store.complete(storeKey, new IdempotencyStore.StoredResponse(
+                        status, cachingResponse.getContentType(), cachingResponse.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                // Errors are not cached: the retry runs again (e.g. after a transient failure)
+                store.abandon(storeKey);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        String json = "{\"message\":\"" + message + "\",\"error\":\"" + message + "\"}";
+        response.getOutputStream().write(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Lets the controller read a body this filter has already consumed
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already buffered, so it is available at once and then fully read
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
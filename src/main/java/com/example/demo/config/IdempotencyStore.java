@@ -0,0 +1,139 @@
+package com.example.demo.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} for a fixed TTL, so a retried request gets
+ * the first response back instead of being executed again.
+ * <p>
+ * Entries live in insertion-ordered maps split over lock stripes. With a single TTL, insertion order
+ * is also expiry order, so eviction only ever inspects the head of a stripe: expired entries are
+ * dropped as new keys arrive, and a stripe at capacity drops its oldest entry.
+ */
+public class IdempotencyStore {
+
+    public enum Outcome {
+        /** First time this key is seen: run the request, then call complete or abandon. */
+        STARTED,
+        /** A response is stored for this key and payload: replay it. */
+        REPLAY,
+        /** The first request with this key has not finished yet. */
+        IN_PROGRESS,
+        /** The key was already used with a different payload. */
+        MISMATCH
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {}
+
+    public record Lookup(Outcome outcome, StoredResponse response) {}
+
+    private final long ttlNanos;
+    private final int maxEntriesPerStripe;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public IdempotencyStore(long ttlNanos, int maxEntries, int stripeCount) {
+        this(ttlNanos, maxEntries, stripeCount, System::nanoTime);
+    }
+
+    IdempotencyStore(long ttlNanos, int maxEntries, int stripeCount, LongSupplier clock) {
+        int n = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1; // next power of two
+        this.ttlNanos = ttlNanos;
+        this.maxEntriesPerStripe = Math.max(16, maxEntries / n);
+        this.clock = clock;
+        this.stripes = new Stripe[n];
+        this.stripeMask = n - 1;
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public Lookup begin(String key, String fingerprint) {
+        Stripe stripe = stripeFor(key);
+        long now = clock.getAsLong();
+
+        synchronized (stripe) {
+            stripe.evictExpired(now);
+            Entry entry = stripe.entries.get(key);
+            if (entry == null) {
+                if (stripe.entries.size() >= maxEntriesPerStripe) {
+                    Iterator<Entry> oldest = stripe.entries.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+                stripe.entries.put(key, new Entry(fingerprint, now + ttlNanos));
+                return new Lookup(Outcome.STARTED, null);
+            }
+            if (!entry.fingerprint.equals(fingerprint)) {
+                return new Lookup(Outcome.MISMATCH, null);
+            }
+            if (entry.response == null) {
+                return new Lookup(Outcome.IN_PROGRESS, null);
+            }
+            return new Lookup(Outcome.REPLAY, entry.response);
+        }
+    }
+
+    public void complete(String key, StoredResponse response) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.response = response;
+            }
+        }
+    }
+
+    // The request failed: forget the key so a retry runs again
+    public void abandon(String key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.entries.remove(key);
+        }
+    }
+
+    int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.entries.size();
+            }
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    private static final class Stripe {
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+        void evictExpired(long now) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Entry head = it.next().getValue();
+                if (head.expiresAt - now > 0) {
+                    return;
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        StoredResponse response;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
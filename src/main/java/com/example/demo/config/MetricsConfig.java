@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables {@code @Timed} on service methods. HTTP endpoint timers, Hikari pool gauges and
+ * Hibernate statement counters are auto-configured by actuator; see the management.* properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Log events dropped by ActionLogSamplingFilter, per rule
+    @Bean
+    public MeterBinder sampledLogMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+                return;
+            }
+            context.getTurboFilterList().stream()
+                    .filter(ActionLogSamplingFilter.class::isInstance)
+                    .flatMap(f -> ((ActionLogSamplingFilter) f).getParsedRules().stream())
+                    .forEach(rule -> FunctionCounter.builder("easypark.logging.dropped", rule, ActionLogSamplingFilter.Rule::getDropped)
+                            .description("Log events dropped by sampling or rate limiting")
+                            .tag("action", rule.getAction())
+                            .register(registry));
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which users committed a write recently, so their reads can be kept on the primary
+ * until the replica has had time to catch up (read-your-writes).
+ */
+public class ReadYourWritesTracker {
+
+    private final ConcurrentHashMap<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(Duration window, LongSupplier clock) {
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            stickyUntil.put(userId, clock.getAsLong() + windowNanos);
+        }
+    }
+
+    public boolean mustReadFromPrimary(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until - clock.getAsLong() > 0) {
+            return true;
+        }
+        stickyUntil.remove(userId, until);
+        return false;
+    }
+
+    // Drops expired entries of users who never read again
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-window:PT5S}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        stickyUntil.entrySet().removeIf(e -> e.getValue() - now <= 0);
+    }
+
+    int size() {
+        return stickyUntil.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Periodically checks that the replica is reachable and not lagging too far behind the primary.
+ * While it is unhealthy, read-only transactions fall back to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final long maxLagSeconds;
+    private final boolean checkReplication;
+
+    private volatile boolean healthy = false;
+    private volatile long lastLagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, boolean checkReplication) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.checkReplication = checkReplication;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        boolean wasHealthy = healthy;
+        try (Connection c = replica.getConnection(); Statement st = c.createStatement()) {
+            if (!checkReplication) {
+                // Plain two-database setups (e.g. local testing) have no replication to inspect
+                st.execute("SELECT 1");
+                lastLagSeconds = 0;
+                healthy = true;
+            } else {
+                lastLagSeconds = readLagSeconds(st);
+                healthy = lastLagSeconds >= 0 && lastLagSeconds <= maxLagSeconds;
+            }
+        } catch (Exception ex) {
+            lastLagSeconds = -1;
+            healthy = false;
+            if (wasHealthy) {
+                log.warn("action=replica_check fail reason={}", ex.getClass().getSimpleName());
+            }
+        }
+
+        if (wasHealthy != healthy) {
+            log.warn("action=replica_check state_change healthy={} lagSeconds={} maxLagSeconds={}",
+                    healthy, lastLagSeconds, maxLagSeconds);
+        }
+    }
+
+    // Returns -1 when replication is not running (no status row, or a NULL lag column)
+    private long readLagSeconds(Statement st) throws Exception {
+        try (ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return -1;
+            }
+            ResultSetMetaData md = rs.getMetaData();
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                String column = md.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(column) || "Seconds_Behind_Master".equalsIgnoreCase(column)) {
+                    long lag = rs.getLong(i);
+                    return rs.wasNull() ? -1 : lag;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Per-request SQL accounting: hooks Hibernate so every statement, loaded entity row and JDBC
+ * execute call is recorded in the current request's {@link SqlStats}, and registers the
+ * {@link SqlAccountingFilter} that opens, reports and closes those stats around each request.
+ */
+@Configuration
+public class SqlAccountingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlAccountingHibernateHooks() {
+        return props -> {
+            props.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            props.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+            props.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(new RowCountingIntegrator()));
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql-stats.max-statements:50}") int maxStatements,
+            @Value("${app.sql-stats.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        FilterRegistrationBean<SqlAccountingFilter> registration = new FilterRegistrationBean<>(
+                new SqlAccountingFilter(meterRegistry, maxStatements, nPlusOneThreshold));
+        // Outermost, so SQL run by any other filter is attributed to the request as well
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    static class CountingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            SqlStats.onStatement(sql);
+            return sql;
+        }
+    }
+
+    // Instantiated by Hibernate (once per session) from its class name, hence public with a no-arg constructor
+    public static class JdbcTimingListener implements SessionEventListener {
+        @Override
+        public void jdbcExecuteStatementStart() {
+            SqlStats.onExecuteStart();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            SqlStats.onExecuteEnd();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            SqlStats.onExecuteStart();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            SqlStats.onExecuteEnd();
+        }
+    }
+
+    static class RowCountingIntegrator implements Integrator {
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, event -> SqlStats.onRowLoaded());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps each request in a {@link SqlStats} scope, then logs and records what it cost in SQL.
+ * Requests issuing more than {@code maxStatements} statements, or repeating one statement
+ * {@code nPlusOneThreshold} times or more, are logged at WARN and counted as flagged.
+ */
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlAccountingFilter.class);
+
+    private static final int MAX_LOGGED_SQL_CHARS = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int nPlusOneThreshold;
+
+    public SqlAccountingFilter(MeterRegistry meterRegistry, int maxStatements, int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStats stats = SqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStats.end();
+            request.setAttribute(SqlStats.REQUEST_ATTRIBUTE, stats);
+            report(request, response, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, SqlStats stats) {
+        String method = request.getMethod();
+        String uri = uriTag(request);
+
+        DistributionSummary.builder("easypark.sql.statements")
+                .description("SQL statements issued per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("easypark.sql.jdbc.time")
+                .description("Time spent in JDBC execute calls per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        boolean tooMany = stats.getStatements() > maxStatements;
+        boolean nPlusOne = stats.getMaxRepeats() >= nPlusOneThreshold;
+
+        if (tooMany) {
+            flagged("too_many_statements", method, uri).increment();
+        }
+        if (nPlusOne) {
+            flagged("n_plus_one", method, uri).increment();
+        }
+
+        if (tooMany || nPlusOne) {
+            Map.Entry<String, Integer> top = stats.getMostRepeated();
+            log.warn("action=sql_stats flagged method={} uri={} status={} statements={} distinct={} rows={} jdbcMs={} topRepeats={} topSql=\"{}\"",
+                    method, uri, response.getStatus(), stats.getStatements(), stats.getDistinctStatements(),
+                    stats.getRowsLoaded(), stats.getJdbcMillis(), top.getValue(), truncate(top.getKey()));
+        } else if (log.isDebugEnabled() && stats.getStatements() > 0) {
+            log.debug("action=sql_stats method={} uri={} status={} statements={} distinct={} rows={} jdbcMs={}",
+                    method, uri, response.getStatus(), stats.getStatements(), stats.getDistinctStatements(),
+                    stats.getRowsLoaded(), stats.getJdbcMillis());
+        }
+    }
+
+    private Counter flagged(String reason, String method, String uri) {
+        return Counter.builder("easypark.sql.flagged")
+                .description("HTTP requests flagged for excessive or repeated SQL")
+                .tags("reason", reason, "method", method, "uri", uri)
+                .register(meterRegistry);
+    }
+
+    // Route template (e.g. /api/bookings/{id}/status) to keep tag cardinality bounded
+    private String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private String truncate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL_CHARS ? sql : sql.substring(0, MAX_LOGGED_SQL_CHARS) + "...";
+    }
+}
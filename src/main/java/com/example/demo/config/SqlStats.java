@@ -0,0 +1,126 @@
+package com.example.demo.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL work done while serving one HTTP request: statements issued, entity rows loaded and time
+ * spent inside JDBC execute calls. Filled in by the Hibernate hooks in {@link SqlAccountingConfig}
+ * on the request thread; work on other threads (async email, streamed exports) is not attributed.
+ * <p>
+ * After the request, the finished instance is available as the {@link #REQUEST_ATTRIBUTE}
+ * request attribute, e.g. from a MockMvc result in tests.
+ */
+public class SqlStats {
+
+    public static final String REQUEST_ATTRIBUTE = SqlStats.class.getName();
+
+    // Cap on distinct statement shapes tracked per request, so a pathological request cannot grow the map
+    private static final int MAX_TRACKED_SHAPES = 256;
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int rowsLoaded;
+    private long jdbcNanos;
+    private long executeStartedAt;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+
+    // ============================
+    // Request lifecycle
+    // ============================
+
+    public static SqlStats begin() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    // ============================
+    // Hooks (no-ops outside a request)
+    // ============================
+
+    static void onStatement(String sql) {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        stats.statements++;
+        Integer seen = stats.shapeCounts.get(sql);
+        if (seen != null) {
+            stats.shapeCounts.put(sql, seen + 1);
+        } else if (stats.shapeCounts.size() < MAX_TRACKED_SHAPES) {
+            stats.shapeCounts.put(sql, 1);
+        }
+    }
+
+    static void onRowLoaded() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.rowsLoaded++;
+        }
+    }
+
+    static void onExecuteStart() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.executeStartedAt = System.nanoTime();
+        }
+    }
+
+    static void onExecuteEnd() {
+        SqlStats stats = CURRENT.get();
+        if (stats != null && stats.executeStartedAt != 0) {
+            stats.jdbcNanos += System.nanoTime() - stats.executeStartedAt;
+            stats.executeStartedAt = 0;
+        }
+    }
+
+    // ============================
+    // Results
+    // ============================
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getJdbcMillis() {
+        return jdbcNanos / 1_000_000;
+    }
+
+    public int getDistinctStatements() {
+        return shapeCounts.size();
+    }
+
+    /**
+     * The statement executed most often in this request, or null if none ran. With Hibernate the
+     * SQL text of a given query is stable (parameters are bound as {@code ?}), so a high count for
+     * one statement is the signature of an N+1 lazy-loading loop.
+     */
+    public Map.Entry<String, Integer> getMostRepeated() {
+        return shapeCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+
+    public int getMaxRepeats() {
+        Map.Entry<String, Integer> top = getMostRepeated();
+        return top == null ? 0 : top.getValue();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.UserRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills users.email_normalized for rows created before the column existed. A no-op once every row
+ * has it. Accounts whose emails differ only by case or surrounding spaces would collide on the
+ * unique index, so they are skipped and logged; those must be merged by hand, and until then only
+ * they cannot log in by email. Everyone else is backfilled.
+ */
+@Component
+public class UserEmailBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEmailBackfill.class);
+
+    private final UserRepository userRepository;
+
+    public UserEmailBackfill(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            List<String> colliding = userRepository.findCollidingNormalizedEmails();
+            int updated;
+            if (colliding.isEmpty()) {
+                updated = userRepository.backfillEmailNormalized();
+            } else {
+                List<Long> skipped = userRepository.findIdsToBackfillByNormalizedEmail(colliding);
+                if (!skipped.isEmpty()) {
+                    log.warn("action=user_email_backfill skipped userIds={} hint=duplicate_emails_differing_by_case",
+                            skipped);
+                }
+                updated = userRepository.backfillEmailNormalizedExcept(colliding);
+            }
+            if (updated > 0) {
+                log.info("action=user_email_backfill success updated={}", updated);
+            }
+        } catch (DataAccessException ex) {
+            log.error("action=user_email_backfill fail reason={}", ex.getClass().getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Runs streaming response bodies (exports) on their own small, bounded pool instead of the
+ * shared application executor that @Async email sending uses. Each running export holds a DB
+ * connection, so the pool size also caps how much of the connection pool exports can take.
+ * <p>
+ * The pool is deliberately not a bean: an Executor bean would replace Boot's applicationTaskExecutor.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor exportExecutor = new ThreadPoolTaskExecutor();
+    private final Duration timeout;
+
+    public WebAsyncConfig(@Value("${app.export.max-concurrent:4}") int maxConcurrent,
+                          @Value("${app.export.queue-capacity:16}") int queueCapacity,
+                          @Value("${app.export.timeout:PT10M}") Duration timeout) {
+        this.timeout = timeout;
+        exportExecutor.setThreadNamePrefix("export-");
+        exportExecutor.setCorePoolSize(maxConcurrent);
+        exportExecutor.setMaxPoolSize(maxConcurrent);
+        exportExecutor.setQueueCapacity(queueCapacity);
+        exportExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor);
+        configurer.setDefaultTimeout(timeout.toMillis());
+    }
+
+    @Override
+    public void destroy() {
+        exportExecutor.shutdown();
+    }
+}
@@ -2,13 +2,17 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.*;
 import com.example.demo.model.User;
+import com.example.demo.service.RefreshTokenService;
 import com.example.demo.service.UserService;
 import com.example.demo.security.JwtService;
+import com.example.demo.security.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,10 +28,15 @@ public class AuthController {
 
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthController(UserService userService, JwtService jwtService) {
+    public AuthController(UserService userService, JwtService jwtService, RefreshTokenService refreshTokenService,
+                          TokenRevocationService tokenRevocationService) {
         this.userService = userService;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/register")
@@ -49,7 +58,8 @@ public class AuthController {
                 user.getRole().name()
         );
 
-        AuthResponse response = new AuthResponse("Registration successful", token, summary);
+        AuthResponse response = new AuthResponse("Registration successful", token,
+                refreshTokenService.issue(user), summary);
 
         log.info("action=register success userId={} email={} role={}",
                 user.getId(), safeEmail(user.getEmail()), user.getRole());
@@ -73,7 +83,8 @@ public class AuthController {
                 user.getRole().name()
         );
 
-        AuthResponse response = new AuthResponse("Login successful", token, summary);
+        AuthResponse response = new AuthResponse("Login successful", token,
+                refreshTokenService.issue(user), summary);
 
         log.info("action=login success userId={} email={} role={}",
                 user.getId(), safeEmail(user.getEmail()), user.getRole());
@@ -81,6 +92,47 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    // Exchanges a refresh token for a new access token (and a rotated refresh token).
+    // No password hashing or Google verification: one indexed lookup and two small writes.
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        User user = rotation.user();
+        String token = jwtService.generateToken(user);
+
+        UserSummary summary = new UserSummary(
+                user.getId(),
+                user.getFullName(),
+                user.getEmail(),
+                user.getPhone(),
+                user.getRole().name()
+        );
+
+        log.info("action=token_refresh success userId={}", user.getId());
+        return ResponseEntity.ok(new AuthResponse("Token refreshed", token, rotation.refreshToken(), summary));
+    }
+
+    // Revokes the refresh token (body) and the access token (Authorization header), whichever are sent
+    @PostMapping("/logout")
+    public ResponseEntity<AuthResponse> logout(@RequestBody(required = false) RefreshTokenRequest request,
+                                               HttpServletRequest httpReq) {
+        if (request != null && request.getRefreshToken() != null && !request.getRefreshToken().isBlank()) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+
+        String authHeader = httpReq.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                tokenRevocationService.revokeToken(jwtService.parseClaims(authHeader.substring(7)));
+            } catch (JwtException ex) {
+                // Already invalid or expired: nothing to revoke
+            } catch (DataIntegrityViolationException ex) {
+                // A concurrent logout with the same token inserted the row first
+            }
+        }
+        return ResponseEntity.ok(new AuthResponse("Logged out"));
+    }
+
     @GetMapping("/users")
     public ResponseEntity<List<UserSummary>> getUsers(HttpServletRequest httpReq) {
         log.info("action=list_users start ip={}", httpReq.getRemoteAddr());
@@ -142,7 +194,8 @@ public class AuthController {
             log.info("action=google_login success userId={} email={} role={}",
                     user.getId(), safeEmail(user.getEmail()), user.getRole());
 
-            return ResponseEntity.ok(new AuthResponse("Login successful", token, summary));
+            return ResponseEntity.ok(new AuthResponse("Login successful", token,
+                    refreshTokenService.issue(user), summary));
 
         } catch (IllegalArgumentException ex) {
             log.warn("action=google_login fail reason=BAD_REQUEST msg={}", ex.getMessage());
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BookingChangesResponse;
 import com.example.demo.dto.BookingResponse;
 import com.example.demo.dto.CreateBookingRequest;
 import com.example.demo.dto.RatingRequest;
@@ -16,10 +17,12 @@ import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -64,28 +67,83 @@ public class BookingController {
 
     @PreAuthorize("hasRole('DRIVER')")
     @GetMapping("/my")
-    public ResponseEntity<List<BookingResponse>> myBookings(Authentication auth) {
+    public ResponseEntity<List<BookingResponse>> myBookings(Authentication auth, WebRequest request) {
         Long userId = currentUserId(auth);
         log.info("action=booking_list_mine start userId={}", userId);
 
+        // Conditional GET: the version is one aggregate query; on a match checkNotModified writes the 304
+        String etag = bookingService.mineVersion(userId).etag("bookings-mine", userId);
+        if (request.checkNotModified(etag)) {
+            log.info("action=booking_list_mine success userId={} notModified=true", userId);
+            return null;
+        }
+
         List<BookingResponse> out = bookingService.listMine(userId)
                 .stream().map(BookingResponse::from).toList();
 
         log.info("action=booking_list_mine success userId={} count={}", userId, out.size());
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
     }
 
     @PreAuthorize("hasRole('OWNER')")
     @GetMapping("/owner")
-    public ResponseEntity<List<BookingResponse>> ownerBookings(Authentication auth) {
+    public ResponseEntity<List<BookingResponse>> ownerBookings(Authentication auth, WebRequest request) {
         Long userId = currentUserId(auth);
         log.info("action=booking_list_owner start ownerId={}", userId);
 
+        String etag = bookingService.ownerVersion(userId).etag("bookings-owner", userId);
+        if (request.checkNotModified(etag)) {
+            log.info("action=booking_list_owner success ownerId={} notModified=true", userId);
+            return null;
+        }
+
         List<BookingResponse> out = bookingService.listForOwner(userId)
                 .stream().map(BookingResponse::from).toList();
 
         log.info("action=booking_list_owner success ownerId={} count={}", userId, out.size());
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
+    }
+
+    // Delta sync: bookings changed since the cursor from the previous call (omit it for a full first sync)
+    @PreAuthorize("hasRole('DRIVER')")
+    @GetMapping("/my/changes")
+    public ResponseEntity<BookingChangesResponse> myBookingChanges(@RequestParam(required = false) String since,
+                                                                   @RequestParam(defaultValue = "200") int limit,
+                                                                   Authentication auth) {
+        Long userId = currentUserId(auth);
+        log.info("action=booking_changes_mine start userId={} initial={}", userId, since == null);
+
+        BookingService.ChangePage page = bookingService.changesMine(userId, since, limit);
+
+        log.info("action=booking_changes_mine success userId={} count={} hasMore={}",
+                userId, page.bookings().size(), page.hasMore());
+        return ResponseEntity.ok(toChangesResponse(page));
+    }
+
+    @PreAuthorize("hasRole('OWNER')")
+    @GetMapping("/owner/changes")
+    public ResponseEntity<BookingChangesResponse> ownerBookingChanges(@RequestParam(required = false) String since,
+                                                                      @RequestParam(defaultValue = "200") int limit,
+                                                                      Authentication auth) {
+        Long userId = currentUserId(auth);
+        log.info("action=booking_changes_owner start ownerId={} initial={}", userId, since == null);
+
+        BookingService.ChangePage page = bookingService.changesForOwner(userId, since, limit);
+
+        log.info("action=booking_changes_owner success ownerId={} count={} hasMore={}",
+                userId, page.bookings().size(), page.hasMore());
+        return ResponseEntity.ok(toChangesResponse(page));
+    }
+
+    private BookingChangesResponse toChangesResponse(BookingService.ChangePage page) {
+        List<BookingResponse> changes = page.bookings().stream().map(BookingResponse::from).toList();
+        return new BookingChangesResponse(changes, page.cursor(), page.hasMore());
     }
 
     @PreAuthorize("hasRole('OWNER')")
@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ExportService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Bulk CSV/NDJSON downloads. Bodies are written on the export executor (see WebAsyncConfig).
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    private Long currentUserId(Authentication auth) {
+        return (Long) auth.getPrincipal(); // set by JwtAuthenticationFilter
+    }
+
+    @PreAuthorize("hasRole('DRIVER')")
+    @GetMapping("/bookings/my")
+    public ResponseEntity<StreamingResponseBody> myBookings(@RequestParam(defaultValue = "csv") String format,
+                                                            Authentication auth) {
+        Long userId = currentUserId(auth);
+        ExportService.Format f = ExportService.Format.parse(format);
+        log.info("action=export_request type=bookings_mine userId={} format={}", userId, f);
+        return download("bookings", f, out -> exportService.exportBookingsForDriver(userId, f, out));
+    }
+
+    @PreAuthorize("hasRole('OWNER')")
+    @GetMapping("/bookings/owner")
+    public ResponseEntity<StreamingResponseBody> ownerBookings(@RequestParam(defaultValue = "csv") String format,
+                                                               Authentication auth) {
+        Long userId = currentUserId(auth);
+        ExportService.Format f = ExportService.Format.parse(format);
+        log.info("action=export_request type=bookings_owner ownerId={} format={}", userId, f);
+        return download("owner-bookings", f, out -> exportService.exportBookingsForOwner(userId, f, out));
+    }
+
+    @PreAuthorize("hasRole('DRIVER')")
+    @GetMapping("/payments/my")
+    public ResponseEntity<StreamingResponseBody> myPayments(@RequestParam(defaultValue = "csv") String format,
+                                                            Authentication auth) {
+        Long userId = currentUserId(auth);
+        ExportService.Format f = ExportService.Format.parse(format);
+        log.info("action=export_request type=payments_mine userId={} format={}", userId, f);
+        return download("payments", f, out -> exportService.exportPaymentsForDriver(userId, f, out));
+    }
+
+    @PreAuthorize("hasRole('OWNER')")
+    @GetMapping("/payments/owner")
+    public ResponseEntity<StreamingResponseBody> ownerPayments(@RequestParam(defaultValue = "csv") String format,
+                                                               Authentication auth) {
+        Long userId = currentUserId(auth);
+        ExportService.Format f = ExportService.Format.parse(format);
+        log.info("action=export_request type=payments_owner ownerId={} format={}", userId, f);
+        return download("owner-payments", f, out -> exportService.exportPaymentsForOwner(userId, f, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String baseName, ExportService.Format format,
+                                                           StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(baseName + "." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
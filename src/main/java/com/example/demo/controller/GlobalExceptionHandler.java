@@ -12,6 +12,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +72,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
     }
 
+    // Unmapped paths (e.g. /actuator/* on the API port) are a 404, not a server error
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNoResource(NoResourceFoundException ex, HttpServletRequest req) {
+        log.debug("action=exception not_found path={}", req.getRequestURI());
+
+        Map<String, String> body = new HashMap<>();
+        body.put("message", "Not found");
+        body.put("error", "Not found");
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleOther(Exception ex, HttpServletRequest req) {
         log.error("action=exception server_error path={}", req.getRequestURI(), ex);
@@ -1,20 +1,46 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AvailabilityCalendarResponse;
 import com.example.demo.dto.BookedIntervalResponse;
+import com.example.demo.dto.ClusterResponse;
+import com.example.demo.dto.CommuterSearchRequest;
+import com.example.demo.dto.FreeSpotsResponse;
+import com.example.demo.dto.FreeWindowResponse;
+import com.example.demo.dto.SpotTextSearchResponse;
+import com.example.demo.dto.LocationSuggestion;
+import com.example.demo.dto.TileResponse;
 import com.example.demo.dto.CreateParkingRequest;
+import com.example.demo.dto.ParkingImportResponse;
 import com.example.demo.dto.ParkingResponse;
 import com.example.demo.dto.UpdateParkingRequest;
 import com.example.demo.model.Parking;
+import com.example.demo.service.AvailabilityCalendarService;
+import com.example.demo.service.FreeWindowService;
+import com.example.demo.service.LocationAutocompleteService;
+import com.example.demo.service.OccupancyService;
+import com.example.demo.service.ParkingClusterService;
+import com.example.demo.service.ParkingImportService;
+import com.example.demo.service.ParkingRanker;
+import com.example.demo.service.ParkingSearchCache;
 import com.example.demo.service.ParkingService;
+import com.example.demo.service.ParkingTileService;
+import com.example.demo.service.SpotTextSearchService;
 import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import com.example.demo.dto.RateParkingRequest;
@@ -27,9 +53,34 @@ public class ParkingController {
     private static final Logger log = LoggerFactory.getLogger(ParkingController.class);
 
     private final ParkingService parkingService;
+    private final ParkingImportService parkingImportService;
+    private final ParkingSearchCache searchCache;
+    private final ParkingRanker ranker;
+    private final ParkingClusterService clusterService;
+    private final ParkingTileService tileService;
+    private final LocationAutocompleteService autocompleteService;
+    private final SpotTextSearchService textSearchService;
+    private final FreeWindowService freeWindowService;
+    private final AvailabilityCalendarService calendarService;
+    private final OccupancyService occupancyService;
 
-    public ParkingController(ParkingService parkingService) {
+    public ParkingController(ParkingService parkingService, ParkingImportService parkingImportService,
+                             ParkingSearchCache searchCache, ParkingRanker ranker,
+                             ParkingClusterService clusterService, ParkingTileService tileService,
+                             LocationAutocompleteService autocompleteService,
+                             SpotTextSearchService textSearchService, FreeWindowService freeWindowService,
+                             AvailabilityCalendarService calendarService, OccupancyService occupancyService) {
         this.parkingService = parkingService;
+        this.parkingImportService = parkingImportService;
+        this.searchCache = searchCache;
+        this.ranker = ranker;
+        this.clusterService = clusterService;
+        this.tileService = tileService;
+        this.autocompleteService = autocompleteService;
+        this.textSearchService = textSearchService;
+        this.freeWindowService = freeWindowService;
+        this.calendarService = calendarService;
+        this.occupancyService = occupancyService;
     }
 
     private Long currentUserId(Authentication auth) {
@@ -50,6 +101,24 @@ public class ParkingController {
         return ResponseEntity.ok(ParkingResponse.from(p));
     }
 
+    // Bulk import: one spot per NDJSON line or CSV row (with a header row), streamed from the body
+    @PreAuthorize("hasRole('OWNER')")
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ParkingImportResponse> importSpots(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             InputStream body,
+                                                             Authentication auth) throws IOException {
+        Long userId = currentUserId(auth);
+        ParkingImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ParkingImportService.Format.CSV
+                : ParkingImportService.Format.NDJSON;
+        log.info("action=parking_import start userId={} format={}", userId, format);
+
+        ParkingImportResponse out = parkingImportService.importSpots(userId, body, format);
+
+        log.info("action=parking_import success userId={} imported={} failed={}", userId, out.getImported(), out.getFailed());
+        return ResponseEntity.ok(out);
+    }
+
     @PreAuthorize("hasRole('OWNER')")
     @PutMapping("/{id}")
     public ResponseEntity<ParkingResponse> update(@PathVariable Long id,
@@ -78,15 +147,25 @@ public class ParkingController {
 
     @PreAuthorize("hasRole('OWNER')")
     @GetMapping("/my")
-    public ResponseEntity<List<ParkingResponse>> mySpots(Authentication auth) {
+    public ResponseEntity<List<ParkingResponse>> mySpots(Authentication auth, WebRequest request) {
         Long userId = currentUserId(auth);
         log.info("action=parking_list_mine start userId={}", userId);
 
+        // Polling clients send If-None-Match; on a match checkNotModified writes the 304 and no spot is loaded
+        String etag = parkingService.mineVersion(userId).etag("parking-mine", userId);
+        if (request.checkNotModified(etag)) {
+            log.info("action=parking_list_mine success userId={} notModified=true", userId);
+            return null;
+        }
+
         List<ParkingResponse> out = parkingService.listMine(userId)
                 .stream().map(ParkingResponse::from).toList();
 
         log.info("action=parking_list_mine success userId={} count={}", userId, out.size());
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
     }
 
     @GetMapping("/search")
@@ -95,25 +174,182 @@ public class ParkingController {
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) LocalDateTime from,
-            @RequestParam(required = false) LocalDateTime to
+            @RequestParam(required = false) LocalDateTime to,
+            @RequestParam(required = false) String sort,   // distance | price | rating | blend
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
     ) {
-        List<ParkingResponse> out = parkingService.search(covered, minPrice, maxPrice, from, to)
-                .stream().map(ParkingResponse::from).toList();
+        ParkingRanker.SortBy sortBy = (sort == null || sort.isBlank()) ? null : ParkingRanker.SortBy.parse(sort);
+
+        int topLimit = ranker.checkRequest(sortBy, lat, lng, limit);
+        // Price and rating orders are sorted and cut in SQL, so only the returned page is loaded and mapped
+        boolean sortInDatabase = sortBy != null && sortBy.sortableInDatabase();
+        ParkingSearchCache.SearchKey filters = ParkingSearchCache.SearchKey.of(covered, minPrice, maxPrice, from, to);
+        ParkingSearchCache.SearchKey key = sortInDatabase ? filters.top(sortBy, topLimit) : filters;
+        // Identical searches share one cached result until a booking or spot change affects it. The
+        // version is read before the matches, so the ETag is never newer than the body it is sent with
+        ParkingSearchCache.Results results = searchCache.get(key, () -> new ParkingSearchCache.Results(
+                parkingService.searchVersion(from != null && to != null),
+                (sortInDatabase
+                        ? parkingService.searchTop(covered, minPrice, maxPrice, from, to, sortBy, topLimit)
+                        : parkingService.search(covered, minPrice, maxPrice, from, to))
+                        .stream().map(ParkingResponse::from).toList()));
+
+        String etag = results.version()
+                .etag("parking-search", covered, minPrice, maxPrice, from, to, sortBy, lat, lng, limit);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<ParkingResponse> out = ranker.rank(results.matches(), sortBy, lat, lng, limit);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
+    }
+
+    // Words in location/description ("EV charger", "gated") plus filters, with facet counts over all matches
+    @GetMapping("/text-search")
+    public ResponseEntity<SpotTextSearchResponse> textSearch(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Boolean covered,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        SpotTextSearchService.Result result = textSearchService.search(q,
+                new SpotTextSearchService.Filters(covered, minPrice, maxPrice, minRating, lat, lng, radiusKm), limit);
+        List<ParkingResponse> out = result.spots().stream().map(ParkingResponse::from).toList();
+
+        log.info("action=parking_text_search success total={} returned={}", result.total(), out.size());
+        return ResponseEntity.ok(new SpotTextSearchResponse(result.total(), out, result.facets()));
+    }
+
+    // Called per keystroke: active spots whose location has words starting with each typed word
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<LocationSuggestion>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(autocompleteService.complete(q, limit));
+    }
+
+    // Zoomed-out map: one marker per grid cell (count, centroid, min price) instead of every spot
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ClusterResponse>> clusters(
+            @RequestParam int zoom,
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng
+    ) {
+        List<ClusterResponse> out = clusterService.clusters(zoom, minLat, minLng, maxLat, maxLng);
+        log.debug("action=parking_clusters success zoom={} clusters={}", zoom, out.size());
+        return ResponseEntity.ok(out);
+    }
+
+    // Zoomed-in map: the spots of one z/x/y tile. The ETag only changes when a spot inside the tile
+    // does. Private caching only: the endpoint needs a login, so shared caches must not hand tiles out
+    @GetMapping("/tiles/{z}/{x}/{y}")
+    public ResponseEntity<TileResponse> tile(@PathVariable int z, @PathVariable int x, @PathVariable int y,
+                                             WebRequest request) {
+        ParkingTileService.Tile tile = tileService.tile(z, x, y);
+        if (request.checkNotModified(tile.etag())) {
+            return null;
+        }
+
+        log.debug("action=parking_tile success z={} x={} y={} count={}", z, x, y, tile.spots().size());
+        return ResponseEntity.ok()
+                .eTag(tile.etag())
+                .cacheControl(CacheControl.maxAge(tileService.maxAge()).cachePrivate())
+                .body(new TileResponse(z, x, y, tile.spots()));
+    }
+
+    // Commuter/fleet search: spots free in the same time window on every selected day of a date range.
+    // POST because the candidate id list can be thousands long
+    @PostMapping("/commuter-search")
+    public ResponseEntity<FreeSpotsResponse> commuterSearch(@Valid @RequestBody CommuterSearchRequest req) {
+        List<Long> free = occupancyService.freeSpots(req);
+
+        log.info("action=parking_commuter_search success candidates={} free={}",
+                req.getParkingIds() == null ? "all" : req.getParkingIds().size(), free.size());
+        return ResponseEntity.ok(new FreeSpotsResponse(free));
+    }
+
+    // Earliest gaps of durationMinutes on one spot (parkingId) or on the spots around lat/lng
+    @GetMapping("/free-windows")
+    public ResponseEntity<List<FreeWindowResponse>> freeWindows(
+            @RequestParam(required = false) Long parkingId,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam int durationMinutes,
+            @RequestParam(required = false) LocalDateTime from,
+            @RequestParam(required = false) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<FreeWindowResponse> out = freeWindowService.find(parkingId, lat, lng, radiusKm, durationMinutes, from, to, limit);
+
+        log.info("action=parking_free_windows success parkingId={} durationMinutes={} count={}",
+                parkingId, durationMinutes, out.size());
         return ResponseEntity.ok(out);
     }
 
+    // Month grid for the booking UI: schedule minus bookings as a compact bitmap (replaces /busy + client-side merging)
+    @GetMapping("/{id}/calendar")
+    public ResponseEntity<AvailabilityCalendarResponse> calendar(
+            @PathVariable Long id,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(defaultValue = "31") int days,
+            @RequestParam(defaultValue = "15") int slotMinutes,
+            WebRequest request
+    ) {
+        calendarService.checkRequest(days, slotMinutes);
+        LocalDate start = from != null ? from : LocalDate.now();
+        String etag = calendarService.version(id).etag("parking-calendar", id, start, days, slotMinutes);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        AvailabilityCalendarResponse out = calendarService.calendar(id, start, days, slotMinutes);
+
+        log.info("action=parking_calendar success parkingId={} slots={} encoding={} bytes={}",
+                id, out.getSlots(), out.getEncoding(), out.getData().length());
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
+    }
+
     @GetMapping("/{id}/busy")
     public ResponseEntity<List<BookedIntervalResponse>> busy(
             @PathVariable Long id,
             @RequestParam(required = false) LocalDateTime from,
-            @RequestParam(required = false) LocalDateTime to
+            @RequestParam(required = false) LocalDateTime to,
+            WebRequest request
     ) {
         log.info("action=parking_busy start parkingId={} from={} to={}", id, from, to);
 
+        // A missing bound defaults to today +/- 1 year, so the tag rolls over daily in that case
+        Object today = (from == null || to == null) ? LocalDate.now() : null;
+        String etag = parkingService.busyVersion(id).etag("parking-busy", id, from, to, today);
+        if (request.checkNotModified(etag)) {
+            log.info("action=parking_busy success parkingId={} notModified=true", id);
+            return null;
+        }
+
         List<BookedIntervalResponse> out = parkingService.getBusyIntervals(id, from, to);
 
         log.info("action=parking_busy success parkingId={} count={}", id, out.size());
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(out);
     }
     @PreAuthorize("hasAnyRole('DRIVER','BOTH')")
     @PostMapping("/{id}/rate")
@@ -5,10 +5,12 @@ import com.example.demo.dto.DriverReportResponse;
 import com.example.demo.service.ReportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -31,29 +33,47 @@ public class ReportController {
     // Use Case Reports
     @PreAuthorize("hasRole('OWNER')")
     @GetMapping("/owner-dashboard")
-    public ResponseEntity<OwnerDashboardResponse> getOwnerDashboard(Authentication auth) {
+    public ResponseEntity<OwnerDashboardResponse> getOwnerDashboard(Authentication auth, WebRequest request) {
         Long ownerId = currentUserId(auth);
         log.info("action=get_owner_dashboard start ownerId={}", ownerId);
 
+        String etag = reportService.ownerDashboardVersion(ownerId).etag("owner-dashboard", ownerId);
+        if (request.checkNotModified(etag)) {
+            log.info("action=get_owner_dashboard success ownerId={} notModified=true", ownerId);
+            return null;
+        }
+
         OwnerDashboardResponse response = reportService.getOwnerDashboard(ownerId);
 
         log.info("action=get_owner_dashboard success ownerId={} revenue={} bookings={}",
                 ownerId, response.getTotalRevenue(), response.getTotalReservations());
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     @PreAuthorize("hasRole('DRIVER')")
     @GetMapping("/driver-report")
-    public ResponseEntity<DriverReportResponse> getDriverReport(Authentication auth) {
+    public ResponseEntity<DriverReportResponse> getDriverReport(Authentication auth, WebRequest request) {
         Long driverId = currentUserId(auth);
         log.info("action=get_driver_report start driverId={}", driverId);
 
+        String etag = reportService.driverReportVersion(driverId).etag("driver-report", driverId);
+        if (request.checkNotModified(etag)) {
+            log.info("action=get_driver_report success driverId={} notModified=true", driverId);
+            return null;
+        }
+
         DriverReportResponse response = reportService.getDriverReport(driverId);
 
         log.info("action=get_driver_report success driverId={} expenses={} bookings={}",
                 driverId, response.getTotalExpenses(), response.getTotalBookings());
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 }
\ No newline at end of file
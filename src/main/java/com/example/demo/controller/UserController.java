@@ -6,6 +6,7 @@ import com.example.demo.dto.UpdateUserRoleRequest;
 import com.example.demo.dto.UserSummary;
 import com.example.demo.model.User;
 import com.example.demo.security.JwtService;
+import com.example.demo.service.RefreshTokenService;
 import com.example.demo.service.UserService;
 import jakarta.validation.Valid;
 
@@ -28,10 +29,12 @@ public class UserController {
 
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
 
-    public UserController(UserService userService, JwtService jwtService) {
+    public UserController(UserService userService, JwtService jwtService, RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     private Long currentUserId(Authentication auth) {
@@ -62,8 +65,11 @@ public class UserController {
         User userEntity = userService.getUserEntity(userId);
         String newToken = jwtService.generateToken(userEntity);
 
+        // 3) Other sessions were revoked with the password change; start a new one for this client
+        String refreshToken = refreshTokenService.issue(userEntity);
+
         log.info("action=user_change_password success userId={} token_refreshed=true", userId);
-        return ResponseEntity.ok(new AuthResponse("Password updated successfully", newToken, updatedSummary));
+        return ResponseEntity.ok(new AuthResponse("Password updated successfully", newToken, refreshToken, updatedSummary));
     }
 
 
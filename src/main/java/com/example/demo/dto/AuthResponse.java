@@ -4,6 +4,7 @@ public class AuthResponse {
 
     private String message;
     private String token;
+    private String refreshToken;
     private UserSummary user;
 
     public AuthResponse() {
@@ -19,6 +20,13 @@ public class AuthResponse {
         this.user = user;
     }
 
+    public AuthResponse(String message, String token, String refreshToken, UserSummary user) {
+        this.message = message;
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -35,6 +43,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public UserSummary getUser() {
         return user;
     }
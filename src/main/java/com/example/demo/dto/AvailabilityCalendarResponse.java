@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bookable time of one spot as a bitmap of slotMinutes cells from start: "runs" data is varint run
+ * lengths alternating closed/open (closed first), "bitmap" data is one bit per cell, LSB-first.
+ * Data is base64url without padding.
+ */
+public class AvailabilityCalendarResponse {
+
+    private final Long parkingId;
+    private final LocalDateTime start;
+    private final int slotMinutes;
+    private final int slots;
+    private final String encoding;
+    private final String data;
+
+    public AvailabilityCalendarResponse(Long parkingId, LocalDateTime start, int slotMinutes, int slots,
+                                        String encoding, String data) {
+        this.parkingId = parkingId;
+        this.start = start;
+        this.slotMinutes = slotMinutes;
+        this.slots = slots;
+        this.encoding = encoding;
+        this.data = data;
+    }
+
+    public Long getParkingId() { return parkingId; }
+    public LocalDateTime getStart() { return start; }
+    public int getSlotMinutes() { return slotMinutes; }
+    public int getSlots() { return slots; }
+    public String getEncoding() { return encoding; }
+    public String getData() { return data; }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// One page of a booking change feed; pass cursor back as "since" to get the next one
+public class BookingChangesResponse {
+
+    private final List<BookingResponse> changes;
+    private final String cursor;
+    private final boolean hasMore;
+
+    public BookingChangesResponse(List<BookingResponse> changes, String cursor, boolean hasMore) {
+        this.changes = changes;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<BookingResponse> getChanges() { return changes; }
+    public String getCursor() { return cursor; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+// Flat projection used by the streaming export (no entity graph is loaded)
+public class BookingExportRow {
+
+    private final Long bookingId;
+    private final Long parkingId;
+    private final String parkingLocation;
+    private final Long driverId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final String status;
+    private final Double totalPrice;
+    private final LocalDateTime createdAt;
+
+    public BookingExportRow(Long bookingId, Long parkingId, String parkingLocation, Long driverId,
+                            LocalDateTime startTime, LocalDateTime endTime, BookingStatus status,
+                            Double totalPrice, LocalDateTime createdAt) {
+        this.bookingId = bookingId;
+        this.parkingId = parkingId;
+        this.parkingLocation = parkingLocation;
+        this.driverId = driverId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status == null ? null : status.name();
+        this.totalPrice = totalPrice;
+        this.createdAt = createdAt;
+    }
+
+    public Long getBookingId() { return bookingId; }
+    public Long getParkingId() { return parkingId; }
+    public String getParkingLocation() { return parkingLocation; }
+    public Long getDriverId() { return driverId; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public String getStatus() { return status; }
+    public Double getTotalPrice() { return totalPrice; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
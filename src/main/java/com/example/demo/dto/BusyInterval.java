@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// Flat projection of a blocking booking: just the spot and the time it holds
+public class BusyInterval {
+
+    private final Long parkingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public BusyInterval(Long parkingId, LocalDateTime start, LocalDateTime end) {
+        this.parkingId = parkingId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Long getParkingId() { return parkingId; }
+    public LocalDateTime getStart() { return start; }
+    public LocalDateTime getEnd() { return end; }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+// One map marker: the spots of a grid cell, placed at their centroid
+public class ClusterResponse {
+
+    private final double lat;
+    private final double lng;
+    private final int count;
+    private final double minPrice;
+    private final Long parkingId; // set only when the cell holds a single spot
+
+    public ClusterResponse(double lat, double lng, int count, double minPrice, Long parkingId) {
+        this.lat = lat;
+        this.lng = lng;
+        this.count = count;
+        this.minPrice = minPrice;
+        this.parkingId = parkingId;
+    }
+
+    public double getLat() { return lat; }
+    public double getLng() { return lng; }
+    public int getCount() { return count; }
+    public double getMinPrice() { return minPrice; }
+    public Long getParkingId() { return parkingId; }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.dto;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Row count plus latest updatedAt over everything a read endpoint renders, fetched with one
+ * aggregate query. Any insert, update or delete in that set changes one of the two, so the pair
+ * is a cheap version for ETags. The extra constructors fold the max(updatedAt) of joined tables
+ * (JPQL constructor expressions cannot call greatest() portably).
+ */
+public final class DataVersion {
+
+    private final long count;
+    private final LocalDateTime lastUpdated;
+
+    public DataVersion(Long count, LocalDateTime lastUpdated) {
+        this.count = count == null ? 0 : count;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public DataVersion(Long count, LocalDateTime a, LocalDateTime b) {
+        this(count, latest(a, b));
+    }
+
+    public DataVersion(Long count, LocalDateTime a, LocalDateTime b, LocalDateTime c) {
+        this(count, latest(latest(a, b), c));
+    }
+
+    public DataVersion(Long count, LocalDateTime a, LocalDateTime b, LocalDateTime c, LocalDateTime d) {
+        this(count, latest(latest(a, b), latest(c, d)));
+    }
+
+    public long getCount() { return count; }
+    public LocalDateTime getLastUpdated() { return lastUpdated; }
+
+    public DataVersion and(DataVersion other) {
+        return new DataVersion(count + other.count, latest(lastUpdated, other.lastUpdated));
+    }
+
+    /**
+     * Weak ETag over this version and the request parameters that shape the response
+     * (the same data renders differently per user, filter or window).
+     */
+    public String etag(Object... scope) {
+        StringBuilder key = new StringBuilder().append(count).append('|').append(lastUpdated);
+        for (Object part : scope) {
+            key.append('|').append(part);
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
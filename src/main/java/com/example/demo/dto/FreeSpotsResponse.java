@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// Spots free in every requested window, by ascending id
+public class FreeSpotsResponse {
+
+    private final int count;
+    private final List<Long> parkingIds;
+
+    public FreeSpotsResponse(List<Long> parkingIds) {
+        this.count = parkingIds.size();
+        this.parkingIds = parkingIds;
+    }
+
+    public int getCount() { return count; }
+    public List<Long> getParkingIds() { return parkingIds; }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// A free gap on a spot, at least as long as the requested duration; [start, start + duration) is bookable
+public class FreeWindowResponse {
+
+    private final Long parkingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public FreeWindowResponse(Long parkingId, LocalDateTime start, LocalDateTime end) {
+        this.parkingId = parkingId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Long getParkingId() { return parkingId; }
+    public LocalDateTime getStart() { return start; }
+    public LocalDateTime getEnd() { return end; }
+}
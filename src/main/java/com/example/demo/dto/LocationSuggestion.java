@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+// Autocomplete hit: an active spot whose location text matches the typed prefix
+public class LocationSuggestion {
+
+    private final Long parkingId;
+    private final String location;
+    private final Double lat;
+    private final Double lng;
+
+    public LocationSuggestion(Long parkingId, String location, Double lat, Double lng) {
+        this.parkingId = parkingId;
+        this.location = location;
+        this.lat = lat;
+        this.lng = lng;
+    }
+
+    public Long getParkingId() { return parkingId; }
+    public String getLocation() { return location; }
+    public Double getLat() { return lat; }
+    public Double getLng() { return lng; }
+}
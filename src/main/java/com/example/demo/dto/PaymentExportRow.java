@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+// Flat projection used by the streaming export (no entity graph is loaded)
+public class PaymentExportRow {
+
+    private final Long paymentId;
+    private final Long bookingId;
+    private final Long driverId;
+    private final Long ownerId;
+    private final Double amount;
+    private final String currency;
+    private final String provider;
+    private final String status;
+    private final LocalDateTime paidAt;
+    private final LocalDateTime createdAt;
+
+    public PaymentExportRow(Long paymentId, Long bookingId, Long driverId, Long ownerId,
+                            Double amount, String currency, String provider, PaymentStatus status,
+                            LocalDateTime paidAt, LocalDateTime createdAt) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.driverId = driverId;
+        this.ownerId = ownerId;
+        this.amount = amount;
+        this.currency = currency;
+        this.provider = provider;
+        this.status = status == null ? null : status.name();
+        this.paidAt = paidAt;
+        this.createdAt = createdAt;
+    }
+
+    public Long getPaymentId() { return paymentId; }
+    public Long getBookingId() { return bookingId; }
+    public Long getDriverId() { return driverId; }
+    public Long getOwnerId() { return ownerId; }
+    public Double getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public String getProvider() { return provider; }
+    public String getStatus() { return status; }
+    public LocalDateTime getPaidAt() { return paidAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// What the expiry job needs to know about a PENDING booking to compute its deadline
+public class PendingBookingDeadline {
+
+    private final Long bookingId;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime startTime;
+
+    public PendingBookingDeadline(Long bookingId, LocalDateTime createdAt, LocalDateTime startTime) {
+        this.bookingId = bookingId;
+        this.createdAt = createdAt;
+        this.startTime = startTime;
+    }
+
+    public Long getBookingId() { return bookingId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getStartTime() { return startTime; }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+// Flat projection of an active spot with coordinates, for the map cluster index
+public class SpotLocation {
+
+    private final Long parkingId;
+    private final double lat;
+    private final double lng;
+    private final double pricePerHour;
+
+    public SpotLocation(Long parkingId, Double lat, Double lng, double pricePerHour) {
+        this.parkingId = parkingId;
+        this.lat = lat;
+        this.lng = lng;
+        this.pricePerHour = pricePerHour;
+    }
+
+    public Long getParkingId() { return parkingId; }
+    public double getLat() { return lat; }
+    public double getLng() { return lng; }
+    public double getPricePerHour() { return pricePerHour; }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+// Full-text spot search page: best matches first, total matches and per-facet counts over all of them
+public class SpotTextSearchResponse {
+
+    private final long total;
+    private final List<ParkingResponse> results;
+    private final Map<String, Map<String, Long>> facets;
+
+    public SpotTextSearchResponse(long total, List<ParkingResponse> results, Map<String, Map<String, Long>> facets) {
+        this.total = total;
+        this.results = results;
+        this.facets = facets;
+    }
+
+    public long getTotal() { return total; }
+    public List<ParkingResponse> getResults() { return results; }
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+}
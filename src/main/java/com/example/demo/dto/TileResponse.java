@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// One web-map tile (z/x/y, XYZ scheme) with the active spots inside it
+public class TileResponse {
+
+    private final int z;
+    private final int x;
+    private final int y;
+    private final List<SpotLocation> spots;
+
+    public TileResponse(int z, int x, int y, List<SpotLocation> spots) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+        this.spots = spots;
+    }
+
+    public int getZ() { return z; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public List<SpotLocation> getSpots() { return spots; }
+}
@@ -1,10 +1,22 @@
 package com.example.demo.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // max(updated_at) over all bookings is part of the search ETag; the index makes it one probe
+        @Index(name = "idx_bookings_updated_at", columnList = "updated_at"),
+        // change feeds (BookingRepository.find*ChangedAfter) range-scan these; the owner feed goes
+        // through the owner's parkings, so its index is per parking rather than per owner
+        @Index(name = "idx_bookings_driver_updated", columnList = "driver_id, updated_at, id"),
+        @Index(name = "idx_bookings_parking_updated", columnList = "parking_id, updated_at, id"),
+        // PendingBookingExpiryJob loads the PENDING bookings
+        @Index(name = "idx_bookings_status_created", columnList = "status, created_at")
+})
 public class Booking {
 
     @Id
@@ -25,8 +37,10 @@ public class Booking {
     @Column(nullable = false)
     private LocalDateTime endTime;
 
+    // VARCHAR rather than a native MySQL ENUM, so adding a status needs no column change
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
     private BookingStatus status = BookingStatus.PENDING;
 
     @Column(nullable = false)
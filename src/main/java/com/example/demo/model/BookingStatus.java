@@ -1,9 +1,17 @@
 package com.example.demo.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 // Booking lifecycle statuses
 public enum BookingStatus {
     PENDING,    // Waiting for owner approval
     APPROVED,   // Approved by the owner
     REJECTED,   // Rejected by the owner
-    CANCELLED   // Cancelled by the driver
+    CANCELLED,  // Cancelled by the driver
+    EXPIRED;    // Owner did not respond within the approval window (PendingBookingExpiryJob)
+
+    // Statuses that hold the slot: overlap checks, search, free windows and the availability indexes
+    public static final Set<BookingStatus> BLOCKING = Collections.unmodifiableSet(EnumSet.of(PENDING, APPROVED));
 }
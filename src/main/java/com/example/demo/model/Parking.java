@@ -7,7 +7,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "parkings")
+@Table(name = "parkings", indexes = {
+        // Map tile loads (ParkingTileService) read spots inside a lat/lng box
+        @Index(name = "idx_parkings_lat_lng", columnList = "lat, lng")
+})
 public class Parking {
 
     @Id
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = {
+        @Index(name = "idx_password_reset_tokens_expires", columnList = "expires_at")
+})
 public class PasswordResetToken {
 
     @Id
@@ -16,9 +18,10 @@ public class PasswordResetToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    // Unique random token string sent to the user
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 (hex) of the random token sent to the user; the raw value is never stored.
+    // Kept in the original "token" column so existing schemas need no migration.
+    @Column(name = "token", nullable = false, unique = true)
+    private String tokenHash;
 
     // When this token expires
     @Column(nullable = false)
@@ -34,9 +37,9 @@ public class PasswordResetToken {
         // JPA requires a default constructor
     }
 
-    public PasswordResetToken(User user, String token, LocalDateTime expiresAt) {
+    public PasswordResetToken(User user, String tokenHash, LocalDateTime expiresAt) {
         this.user = user;
-        this.token = token;
+        this.tokenHash = tokenHash;
         this.expiresAt = expiresAt;
         this.used = false;
     }
@@ -55,12 +58,12 @@ public class PasswordResetToken {
         this.user = user;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
     }
 
     public LocalDateTime getExpiresAt() {
@@ -0,0 +1,87 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A revoked access token. Either a single token (tokenId = its jti, e.g. logout) or every token a
+ * user was issued before a point in time (issuedBefore, e.g. password or role change).
+ * Rows are only needed until the tokens they cover have expired.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_created", columnList = "created_at"),
+        @Index(name = "idx_revoked_tokens_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", unique = true, length = 36)
+    private String tokenId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "issued_before")
+    private LocalDateTime issuedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public RevokedToken() {
+        // JPA requires a default constructor
+    }
+
+    public static RevokedToken forToken(String tokenId, Long userId, LocalDateTime expiresAt) {
+        RevokedToken r = new RevokedToken();
+        r.tokenId = tokenId;
+        r.userId = userId;
+        r.expiresAt = expiresAt;
+        return r;
+    }
+
+    public static RevokedToken forUser(Long userId, LocalDateTime issuedBefore, LocalDateTime expiresAt) {
+        RevokedToken r = new RevokedToken();
+        r.userId = userId;
+        r.issuedBefore = issuedBefore;
+        r.expiresAt = expiresAt;
+        return r;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getIssuedBefore() {
+        return issuedBefore;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -5,9 +5,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import com.example.demo.model.Role;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Entity
 @Table(name = "users", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "email")
+        @UniqueConstraint(columnNames = "email"),
+        @UniqueConstraint(name = "uk_users_email_normalized", columnNames = "email_normalized")
 })
 public class User {
 
@@ -23,6 +27,11 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Lookup key for email (see normalizeEmail); the unique index makes login/registration one probe.
+    // Nullable only so existing rows can be backfilled after the column is added (UserEmailBackfill).
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
     private String phone;
 
     @Enumerated(EnumType.STRING)
@@ -48,12 +57,22 @@ public class User {
     private Integer totalRatings = 0;
     // ---------------------------------
 
+    // Bookings render the driver's rating and the owner's phone, so their ETags include this.
+    // Nullable for rows that predate the column; max() skips them.
+    private LocalDateTime updatedAt;
+
     public User() {
     }
 
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public User(String fullName, String email, String phone, Role role, String passwordHash) {
         this.fullName = fullName;
-        this.email = email;
+        setEmail(email);
         this.phone = phone;
         this.role = role;
         this.passwordHash = passwordHash;
@@ -67,7 +86,17 @@ public class User {
     public void setFullName(String fullName) { this.fullName = fullName; }
 
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    public String getEmailNormalized() { return emailNormalized; }
+
+    // Emails are matched case-insensitively; the stored email keeps the user's casing for display
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 
     public String getPhone() { return phone; }
     public void setPhone(String phone) { this.phone = phone; }
@@ -90,4 +119,6 @@ public class User {
 
     public Integer getTotalRatings() { return totalRatings != null ? totalRatings : 0; }
     public void setTotalRatings(Integer totalRatings) { this.totalRatings = totalRatings; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.BookingExportRow;
+import com.example.demo.dto.BusyInterval;
+import com.example.demo.dto.DataVersion;
+import com.example.demo.dto.PendingBookingDeadline;
 import com.example.demo.model.Booking;
 import com.example.demo.model.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
@@ -30,6 +41,95 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
            """)
     List<Booking> findForOwner(@Param("ownerId") Long ownerId);
 
+    // Change feeds: rows after the (updatedAt, id) cursor, oldest first. Rows newer than :until are held
+    // back until in-flight transactions that stamped an earlier updatedAt have had time to commit.
+    @Query("""
+           select b from Booking b
+           join fetch b.parking p
+           where b.driver.id = :driverId
+             and (b.updatedAt > :afterUpdatedAt or (b.updatedAt = :afterUpdatedAt and b.id > :afterId))
+             and b.updatedAt <= :until
+           order by b.updatedAt, b.id
+           """)
+    List<Booking> findMineChangedAfter(@Param("driverId") Long driverId,
+                                       @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                       @Param("afterId") Long afterId,
+                                       @Param("until") LocalDateTime until,
+                                       Pageable page);
+
+    @Query("""
+           select b from Booking b
+           join fetch b.parking p
+           where p.ownerId = :ownerId
+             and (b.updatedAt > :afterUpdatedAt or (b.updatedAt = :afterUpdatedAt and b.id > :afterId))
+             and b.updatedAt <= :until
+           order by b.updatedAt, b.id
+           """)
+    List<Booking> findForOwnerChangedAfter(@Param("ownerId") Long ownerId,
+                                           @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                           @Param("afterId") Long afterId,
+                                           @Param("until") LocalDateTime until,
+                                           Pageable page);
+
+    // Versions for conditional GETs: one aggregate row over what findMine/findForOwner render,
+    // including the joined parking and users (ratings, owner phone). No entities are loaded.
+    @Query("""
+           select new com.example.demo.dto.DataVersion(
+               count(b), max(b.updatedAt), max(p.updatedAt), max(d.updatedAt), max(o.updatedAt))
+           from Booking b
+           join b.parking p
+           join b.driver d
+           left join User o on o.id = p.ownerId
+           where d.id = :driverId
+           """)
+    DataVersion versionForDriver(@Param("driverId") Long driverId);
+
+    @Query("""
+           select new com.example.demo.dto.DataVersion(
+               count(b), max(b.updatedAt), max(p.updatedAt), max(d.updatedAt))
+           from Booking b
+           join b.parking p
+           join b.driver d
+           where p.ownerId = :ownerId
+           """)
+    DataVersion versionForOwner(@Param("ownerId") Long ownerId);
+
+    @Query("""
+           select new com.example.demo.dto.DataVersion(count(b), max(b.updatedAt))
+           from Booking b
+           where b.parking.id = :parkingId
+           """)
+    DataVersion versionForParking(@Param("parkingId") Long parkingId);
+
+    // Bookings are never deleted (cancelling is a status change), so the latest update alone
+    // tells whether any booking changed; backed by idx_bookings_updated_at.
+    @Query("select max(b.updatedAt) from Booking b")
+    LocalDateTime findLastUpdatedAt();
+
+    // Forward-only cursors for the CSV/NDJSON export. Must be consumed inside a transaction and closed;
+    // MySQL only honours the fetch size when the URL has useCursorFetch=true.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           select new com.example.demo.dto.BookingExportRow(
+               b.id, p.id, p.location, b.driver.id, b.startTime, b.endTime, b.status, b.totalPrice, b.createdAt)
+           from Booking b
+           join b.parking p
+           where b.driver.id = :driverId
+           order by b.startTime desc
+           """)
+    Stream<BookingExportRow> streamMine(@Param("driverId") Long driverId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           select new com.example.demo.dto.BookingExportRow(
+               b.id, p.id, p.location, b.driver.id, b.startTime, b.endTime, b.status, b.totalPrice, b.createdAt)
+           from Booking b
+           join b.parking p
+           where p.ownerId = :ownerId
+           order by b.startTime desc
+           """)
+    Stream<BookingExportRow> streamForOwner(@Param("ownerId") Long ownerId);
+
     // Detect overlapping bookings for the same parking spot (for active statuses)
     @Query("""
            select count(b) from Booking b
@@ -73,6 +173,64 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                @Param("from") LocalDateTime from,
                                @Param("to") LocalDateTime to,
                                @Param("activeStatuses") Collection<BookingStatus> activeStatuses);
+
+    // Free-window finder: blocking intervals of many spots, grouped by spot and sorted by start
+    @Query("""
+       select new com.example.demo.dto.BusyInterval(b.parking.id, b.startTime, b.endTime) from Booking b
+       where b.parking.id in :parkingIds
+         and b.status in :activeStatuses
+         and b.startTime < :to
+         and b.endTime > :from
+       order by b.parking.id asc, b.startTime asc
+       """)
+    List<BusyInterval> findBusyIntervals(@Param("parkingIds") Collection<Long> parkingIds,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("activeStatuses") Collection<BookingStatus> activeStatuses);
+
+    // Pending-booking expiry (PendingBookingExpiryJob): deadlines of every PENDING booking
+    @Query("""
+       select new com.example.demo.dto.PendingBookingDeadline(b.id, b.createdAt, b.startTime) from Booking b
+       where b.status = com.example.demo.model.BookingStatus.PENDING
+       """)
+    List<PendingBookingDeadline> findPendingDeadlines();
+
+    @Query("""
+       select b from Booking b join fetch b.parking
+       where b.id in :ids and b.status = com.example.demo.model.BookingStatus.PENDING
+       """)
+    List<Booking> findPendingByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bulk update skips @PreUpdate, so updatedAt is set here for change feeds and ETags. Bookings an
+    // owner approved or rejected meanwhile are left alone.
+    @Modifying
+    @Transactional
+    @Query("""
+       update Booking b set b.status = com.example.demo.model.BookingStatus.EXPIRED, b.updatedAt = :now
+       where b.id in :ids and b.status = com.example.demo.model.BookingStatus.PENDING
+       """)
+    int expirePending(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Owner's decision; 0 rows when the booking left PENDING meanwhile (e.g. the expiry job got there first)
+    @Modifying
+    @Transactional
+    @Query("""
+       update Booking b set b.status = :status, b.updatedAt = :now
+       where b.id = :id and b.status = com.example.demo.model.BookingStatus.PENDING
+       """)
+    int decidePending(@Param("id") Long id, @Param("status") BookingStatus status, @Param("now") LocalDateTime now);
+
+    // Occupancy index rebuild: every blocking interval in the indexed range
+    @Query("""
+       select new com.example.demo.dto.BusyInterval(b.parking.id, b.startTime, b.endTime) from Booking b
+       where b.status in :activeStatuses
+         and b.startTime < :to
+         and b.endTime > :from
+       """)
+    List<BusyInterval> findAllBusyIntervals(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("activeStatuses") Collection<BookingStatus> activeStatuses);
+
     @Query("""
        select count(b) > 0 from Booking b
        where b.parking.id = :parkingId
@@ -1,7 +1,11 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.DataVersion;
+import com.example.demo.dto.LocationSuggestion;
+import com.example.demo.dto.SpotLocation;
 import com.example.demo.model.BookingStatus;
 import com.example.demo.model.Parking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,9 +13,68 @@ import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ParkingRepository extends JpaRepository<Parking, Long> {
     List<Parking> findByOwnerId(Long ownerId);
+
+    // Free-window finder: spots with their slots in one query
+    @Query("select distinct p from Parking p left join fetch p.availabilityList where p.id in :ids")
+    List<Parking> findWithAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Occupancy index rebuild (OccupancyService)
+    @Query("select distinct p from Parking p left join fetch p.availabilityList where p.active = true")
+    List<Parking> findActiveWithAvailability();
+
+    // Full-text index rebuild (SpotTextSearchService)
+    List<Parking> findByActiveTrue();
+
+    @Query("select new com.example.demo.dto.DataVersion(count(p), max(p.updatedAt)) from Parking p where p.ownerId = :ownerId")
+    DataVersion versionForOwner(@Param("ownerId") Long ownerId);
+
+    @Query("select new com.example.demo.dto.DataVersion(count(p), max(p.updatedAt)) from Parking p")
+    DataVersion versionOfAll();
+
+    @Query("select new com.example.demo.dto.DataVersion(count(p), max(p.updatedAt)) from Parking p where p.id = :id")
+    DataVersion versionForSpot(@Param("id") Long id);
+
+    // Map cluster index (ParkingClusterService): spots that can appear on the map
+    @Query("""
+           select new com.example.demo.dto.SpotLocation(p.id, p.lat, p.lng, p.pricePerHour)
+           from Parking p
+           where p.active = true and p.lat is not null and p.lng is not null
+           """)
+    List<SpotLocation> findMapLocations();
+
+    @Query("""
+           select new com.example.demo.dto.SpotLocation(p.id, p.lat, p.lng, p.pricePerHour)
+           from Parking p
+           where p.id = :id and p.active = true and p.lat is not null and p.lng is not null
+           """)
+    Optional<SpotLocation> findMapLocation(@Param("id") Long id);
+
+    // Location autocomplete index (LocationAutocompleteService)
+    @Query("select new com.example.demo.dto.LocationSuggestion(p.id, p.location, p.lat, p.lng) from Parking p where p.active = true")
+    List<LocationSuggestion> findLocationSuggestions();
+
+    @Query("""
+           select new com.example.demo.dto.LocationSuggestion(p.id, p.location, p.lat, p.lng)
+           from Parking p
+           where p.id = :id and p.active = true
+           """)
+    Optional<LocationSuggestion> findLocationSuggestion(@Param("id") Long id);
+
+    @Query("""
+           select new com.example.demo.dto.SpotLocation(p.id, p.lat, p.lng, p.pricePerHour)
+           from Parking p
+           where p.active = true
+             and p.lat >= :south and p.lat <= :north
+             and p.lng >= :west and p.lng <= :east
+           order by p.id
+           """)
+    List<SpotLocation> findMapLocationsWithin(@Param("south") double south, @Param("north") double north,
+                                              @Param("west") double west, @Param("east") double east);
+
     @Query("""
     select p from Parking p
     where p.active = true
@@ -32,7 +95,23 @@ public interface ParkingRepository extends JpaRepository<Parking, Long> {
             @Param("maxPrice") Double maxPrice,
             @Param("from") LocalDateTime from,
             @Param("to") LocalDateTime to,
-            @Param("busyStatuses") Collection<BookingStatus> busyStatuses
+            @Param("busyStatuses") Collection<BookingStatus> busyStatuses,
+            Pageable page
+    );
+
+    // Price/rating-sorted searches without a window: ORDER BY ... LIMIT from the Pageable
+    @Query("""
+    select p from Parking p
+    where p.active = true
+      and (:covered is null or p.covered = :covered)
+      and (:minPrice is null or p.pricePerHour >= :minPrice)
+      and (:maxPrice is null or p.pricePerHour <= :maxPrice)
+""")
+    List<Parking> searchActive(
+            @Param("covered") Boolean covered,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            Pageable page
     );
 
 }
@@ -1,13 +1,22 @@
 package com.example.demo.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.PasswordResetToken;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
 
-    // Find a token by its string value
-    Optional<PasswordResetToken> findByToken(String token);
-}
\ No newline at end of file
+    // Pass TokenHashing.sha256(rawToken): a unique-index equality lookup
+    Optional<PasswordResetToken> findByTokenHash(String tokenHash);
+
+    // One purge batch (uses the expires_at index). Used tokens are expired when consumed.
+    @Query("select t.id from PasswordResetToken t where t.expiresAt < :cutoff order by t.expiresAt")
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+}
@@ -1,12 +1,17 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.PaymentExportRow;
 import com.example.demo.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
@@ -31,4 +36,31 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
            order by pay.createdAt desc
            """)
     List<Payment> findForOwner(@Param("ownerId") Long ownerId);
+
+    // Forward-only cursors for the CSV/NDJSON export (see BookingRepository.streamMine)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           select new com.example.demo.dto.PaymentExportRow(
+               pay.id, b.id, b.driver.id, p.ownerId, pay.amount, pay.currency, pay.provider,
+               pay.status, pay.paidAt, pay.createdAt)
+           from Payment pay
+           join pay.booking b
+           join b.parking p
+           where b.driver.id = :driverId
+           order by pay.createdAt desc
+           """)
+    Stream<PaymentExportRow> streamMine(@Param("driverId") Long driverId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           select new com.example.demo.dto.PaymentExportRow(
+               pay.id, b.id, b.driver.id, p.ownerId, pay.amount, pay.currency, pay.provider,
+               pay.status, pay.paidAt, pay.createdAt)
+           from Payment pay
+           join pay.booking b
+           join b.parking p
+           where p.ownerId = :ownerId
+           order by pay.createdAt desc
+           """)
+    Stream<PaymentExportRow> streamForOwner(@Param("ownerId") Long ownerId);
 }
@@ -1,14 +1,47 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-    Optional<User> findByEmail(String email);
+    // Pass User.normalizeEmail(...): matches the unique index on email_normalized
+    Optional<User> findByEmailNormalized(String emailNormalized);
 
-    boolean existsByEmail(String email);
+    // One-off fill for rows created before email_normalized existed
+    @Modifying
+    @Transactional
+    @Query("update User u set u.emailNormalized = lower(trim(u.email)) where u.emailNormalized is null")
+    int backfillEmailNormalized();
+
+    // Same, minus emails the unique index would reject (a non-empty list: "not in ()" is not portable)
+    @Modifying
+    @Transactional
+    @Query("update User u set u.emailNormalized = lower(trim(u.email))"
+            + " where u.emailNormalized is null and lower(trim(u.email)) not in :skipped")
+    int backfillEmailNormalizedExcept(@Param("skipped") Collection<String> skipped);
+
+    // Normalized emails shared by more than one account
+    @Query("select lower(trim(u.email)) from User u group by lower(trim(u.email)) having count(u) > 1")
+    List<String> findCollidingNormalizedEmails();
+
+    @Query("select u.id from User u where u.emailNormalized is null and lower(trim(u.email)) in :emails")
+    List<Long> findIdsToBackfillByNormalizedEmail(@Param("emails") Collection<String> emails);
+
+    // Own transaction: called from read-only login. Only replaces the hash that was verified,
+    // so a concurrent password change is never overwritten.
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("update User u set u.passwordHash = :newHash where u.id = :id and u.passwordHash = :oldHash")
+    int upgradePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -27,9 +27,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -56,11 +58,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             Long userId = Long.valueOf(claims.getSubject());
             String role = (String) claims.get("role");
 
-            log.info("DIAGNOSTIC: Path={}", path);
-            log.info("DIAGNOSTIC: Token Subject (expecting ID) = '{}'", userId);
-            log.info("DIAGNOSTIC: Token Role (expecting String) = '{}'", role);
-
-            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (tokenRevocationService.isRevoked(claims)) {
+                // Same treatment as an invalid token: continue unauthenticated, so the entry point answers 401
+                log.warn("action=jwt_auth fail path={} reason=REVOKED userId={}", path, userId);
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
                 List<GrantedAuthority> authorities = switch (role) {
                     case "DRIVER" -> List.of(new SimpleGrantedAuthority("ROLE_DRIVER"));
@@ -91,10 +92,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         } catch (Exception ex) {
             // Do not log token. Log the exception type for debugging.
+            // One line per failure; bursts are rate-limited by app.logging.sampling-rules.
             log.warn("action=jwt_auth fail path={} reason={}", path, ex.getClass().getSimpleName());
-            log.error("CRITICAL AUTH ERROR on path={}", path);
-            log.error("Exception Type: {}", ex.getClass().getName());
-            log.error("Exception Message: {}", ex.getMessage());
             // IMPORTANT: do not block request here; let Spring Security handle authorization failure later.
         }
 
@@ -1,6 +1,7 @@
 package com.example.demo.security;
 
 import com.example.demo.model.User;
+import io.micrometer.core.annotation.Timed;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 
@@ -15,6 +16,7 @@ import java.security.Key;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
@@ -46,6 +48,8 @@ public class JwtService {
                 .claim("email", user.getEmail())
                 .claim("fullName", user.getFullName())
                 
+                // Token id, so a single token can be revoked (see TokenRevocationService)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(exp))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
@@ -55,6 +59,7 @@ public class JwtService {
         return jwt;
     }
 
+    @Timed(value = "easypark.jwt.parse", description = "JWT signature check and claim parsing")
     public Claims parseClaims(String token) {
         try {
             return Jwts.parserBuilder()
@@ -0,0 +1,132 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small, bounded worker pool instead of the calling (Tomcat) thread's CPU budget.
+ * At most {@code threads} hashes run at once and {@code queue-capacity} wait; beyond that, or when
+ * a hash cannot start within {@code max-wait}, callers get 503 immediately. A login storm therefore
+ * parks a bounded number of request threads and leaves the rest free for other endpoints.
+ */
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(BCryptPasswordEncoder encoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.password-hashing.threads:0}") int threads,
+                                  @Value("${app.security.password-hashing.queue-capacity:32}") int queueCapacity,
+                                  @Value("${app.security.password-hashing.max-wait:PT3S}") Duration maxWait) {
+        this.encoder = encoder;
+        this.maxWait = maxWait;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "password_hashing", List.of()).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("easypark.password.hash").tag("op", "encode")
+                .description("BCrypt time on the hashing pool").register(meterRegistry);
+        this.matchTimer = Timer.builder("easypark.password.hash").tag("op", "matches")
+                .description("BCrypt time on the hashing pool").register(meterRegistry);
+        this.rejected = Counter.builder("easypark.password.hash.rejected")
+                .description("Hash requests rejected because the pool was saturated").register(meterRegistry);
+
+        log.info("action=password_hashing init threads={} queueCapacity={} maxWait={}", poolSize, queueCapacity, maxWait);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run("encode", () -> encodeTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run("matches", () -> matchTimer.record(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * True if the hash was made with a lower cost than the configured one (cheap, runs inline).
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(String op, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            log.warn("action=password_hash reject op={} reason=QUEUE_FULL active={} queued={}",
+                    op, executor.getActiveCount(), executor.getQueue().size());
+            throw busy();
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("action=password_hash reject op={} reason=TIMEOUT maxWait={}", op, maxWait);
+            throw busy();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    private ResponseStatusException busy() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again shortly");
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route token-bucket rate limiting. Runs right after {@link JwtAuthenticationFilter}, so
+ * authenticated callers are limited by user id and anonymous ones (e.g. login) by client IP.
+ * <p>
+ * Routes are configured in {@code app.rate-limit.routes} as
+ * {@code "<METHOD> <path>=<capacity>/<period>;..."}, e.g. {@code "POST /api/auth/login=5/1m"}:
+ * a client may burst {@code capacity} requests and then gets {@code capacity} per {@code period}.
+ * Paths may use Ant-style wildcards. Rejected requests get 429 with Retry-After.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final boolean enabled;
+    private final List<Route> routes;
+
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.routes:}") String routes,
+                           @Value("${app.rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${app.rate-limit.stripes:64}") int stripes) {
+        this.enabled = enabled;
+        this.routes = parseRoutes(routes, maxKeys, stripes);
+        log.info("action=rate_limit init enabled={} routes={}", enabled, this.routes.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = check(request);
+        if (waitNanos <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.warn("action=rate_limit reject method={} path={} retryAfter={}",
+                request.getMethod(), request.getRequestURI(), retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests, please retry later\",\"error\":\"Too many requests\"}");
+    }
+
+    /**
+     * @return 0 if the request is allowed (or no route applies), else nanoseconds until it would be
+     */
+    long check(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route.limiter.tryAcquire(clientKey(request));
+            }
+        }
+        return 0;
+    }
+
+    private Object clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof Long userId) {
+            return userId;
+        }
+        // Honour X-Forwarded-For only via server.forward-headers-strategy, never from raw headers
+        return request.getRemoteAddr();
+    }
+
+    static List<Route> parseRoutes(String raw, int maxKeys, int stripes) {
+        List<Route> result = new ArrayList<>();
+        if (raw == null || raw.isBlank()) {
+            return result;
+        }
+        for (String part : raw.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] routeAndLimit = part.trim().split("=");
+            String[] methodAndPath = routeAndLimit[0].trim().split("\\s+");
+            String[] limit = routeAndLimit.length == 2 ? routeAndLimit[1].trim().split("/") : new String[0];
+            if (methodAndPath.length != 2 || limit.length != 2) {
+                throw new IllegalArgumentException("Rate limit route must look like 'GET /path=10/1s' but got '" + part.trim() + "'");
+            }
+            try {
+                int capacity = Integer.parseInt(limit[0].trim());
+                Duration period = Duration.parse("PT" + limit[1].trim().toUpperCase());
+                result.add(new Route(methodAndPath[0].toUpperCase(), methodAndPath[1], PATHS.isPattern(methodAndPath[1]),
+                        new TokenBucketRateLimiter(capacity, period.toNanos(), maxKeys, stripes)));
+            } catch (NumberFormatException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid rate limit '" + routeAndLimit[1].trim() + "' for " + routeAndLimit[0].trim());
+            }
+        }
+        return result;
+    }
+
+    record Route(String method, String pattern, boolean wildcard, TokenBucketRateLimiter limiter) {
+
+        boolean matches(String requestMethod, String path) {
+            if (!method.equals(requestMethod)) {
+                return false;
+            }
+            return wildcard ? PATHS.match(pattern, path) : pattern.equals(path);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.security;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by client (user id or IP), split over lock stripes so concurrent requests
+ * from different clients rarely contend. A bucket is only allocated the first time a key is seen;
+ * the hot path is a hash lookup and a few arithmetic operations under the stripe's monitor.
+ * <p>
+ * A full bucket carries no information, so buckets that have refilled are evicted when a stripe
+ * grows past its share of {@code maxKeys}.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxKeysPerStripe;
+    private final LongSupplier clock;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public TokenBucketRateLimiter(int capacity, long refillPeriodNanos, int maxKeys, int stripeCount) {
+        this(capacity, refillPeriodNanos, maxKeys, stripeCount, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, long refillPeriodNanos, int maxKeys, int stripeCount, LongSupplier clock) {
+        if (capacity <= 0 || refillPeriodNanos <= 0) {
+            throw new IllegalArgumentException("capacity and refill period must be positive");
+        }
+        int n = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1; // next power of two
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriodNanos;
+        this.maxKeysPerStripe = Math.max(16, maxKeys / n);
+        this.clock = clock;
+        this.stripes = new Stripe[n];
+        this.stripeMask = n - 1;
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(Object key) {
+        int h = key.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & stripeMask];
+        long now = clock.getAsLong();
+
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxKeysPerStripe) {
+                    stripe.evictRefilled(now);
+                }
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.refill(now);
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.buckets.size();
+            }
+        }
+        return total;
+    }
+
+    private final class Stripe {
+        private final HashMap<Object, Bucket> buckets = new HashMap<>();
+
+        private void evictRefilled(long now) {
+            Iterator<Map.Entry<Object, Bucket>> it = buckets.entrySet().iterator();
+            while (it.hasNext()) {
+                Bucket b = it.next().getValue();
+                b.refill(now);
+                if (b.tokens >= capacity) {
+                    it.remove();
+                }
+            }
+            // Every key is still active: drop the map rather than grow without bound
+            if (buckets.size() >= maxKeysPerStripe) {
+                buckets.clear();
+            }
+        }
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updatedAt = now;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - updatedAt;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                updatedAt = now;
+            }
+        }
+    }
+}
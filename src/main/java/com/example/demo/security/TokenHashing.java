@@ -0,0 +1,37 @@
+package com.example.demo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Helpers for opaque bearer secrets (refresh tokens, reset tokens) that are stored only as hashes.
+ * The secrets are 256-bit random values, so a single fast SHA-256 is enough: unlike passwords they
+ * cannot be brute-forced from the hash, and lookups stay a plain indexed equality match.
+ */
+public final class TokenHashing {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TokenHashing() {
+    }
+
+    public static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 64 lowercase hex chars
+    public static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.security;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of revoked access tokens, checked on every authenticated request.
+ * <p>
+ * Single tokens are looked up by jti through a Bloom filter first, so the common "not revoked"
+ * answer costs a few hashed bit reads; only filter hits consult the exact set. Whole-user
+ * revocations are kept as one cutoff per user (tokens issued before it are rejected).
+ */
+public final class TokenRevocationList {
+
+    private final BloomFilter filter;
+    private final Set<String> revokedIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> issuedBeforeByUser = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(long expectedTokenIds, double falsePositiveRate) {
+        this.filter = new BloomFilter(expectedTokenIds, falsePositiveRate);
+    }
+
+    public void revokeTokenId(String tokenId) {
+        // Exact set first: a reader that sees the filter bits must also find the id
+        revokedIds.add(tokenId);
+        filter.put(tokenId);
+    }
+
+    public void revokeIssuedBefore(Long userId, long epochSecond) {
+        issuedBeforeByUser.merge(userId, epochSecond, Math::max);
+    }
+
+    public boolean isRevoked(String tokenId, Long userId, long issuedAtEpochSecond) {
+        if (!issuedBeforeByUser.isEmpty()) {
+            Long cutoff = issuedBeforeByUser.get(userId);
+            if (cutoff != null && issuedAtEpochSecond < cutoff) {
+                return true;
+            }
+        }
+        return tokenId != null && filter.mightContain(tokenId) && revokedIds.contains(tokenId);
+    }
+
+    public int tokenIdCount() {
+        return revokedIds.size();
+    }
+
+    public int userCutoffCount() {
+        return issuedBeforeByUser.size();
+    }
+}
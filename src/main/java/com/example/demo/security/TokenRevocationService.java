@@ -0,0 +1,160 @@
+package com.example.demo.security;
+
+import com.example.demo.model.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Access-token revocation (logout, password change, role change).
+ * <p>
+ * Revocations are written to {@code revoked_tokens} and applied to this node's
+ * {@link TokenRevocationList} immediately; other nodes pick them up on the next incremental
+ * refresh. The list is rebuilt from the live rows periodically, which also drops expired entries
+ * (a Bloom filter cannot forget).
+ */
+@Service
+public class TokenRevocationService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedTokenIds;
+    private final double falsePositiveRate;
+    private final Duration accessTokenTtl;
+    private final Duration refreshOverlap;
+
+    private volatile TokenRevocationList list;
+    private volatile LocalDateTime lastRefreshStart;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${app.security.revocation.expected-entries:100000}") long expectedTokenIds,
+                                  @Value("${app.security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${security.jwt.expiration-minutes:60}") long accessTokenMinutes,
+                                  @Value("${app.security.revocation.refresh-overlap:PT1M}") Duration refreshOverlap) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedTokenIds = expectedTokenIds;
+        this.falsePositiveRate = falsePositiveRate;
+        this.accessTokenTtl = Duration.ofMinutes(accessTokenMinutes);
+        this.refreshOverlap = refreshOverlap;
+        this.list = new TokenRevocationList(expectedTokenIds, falsePositiveRate);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    // Hot path: called by JwtAuthenticationFilter for every bearer token; no I/O
+    public boolean isRevoked(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        long iat = issuedAt == null ? 0 : issuedAt.getTime() / 1000;
+        return list.isRevoked(claims.getId(), Long.valueOf(claims.getSubject()), iat);
+    }
+
+    // Logout: revokes this one access token until it would have expired anyway
+    @Transactional
+    public void revokeToken(Claims claims) {
+        Long userId = Long.valueOf(claims.getSubject());
+        if (claims.getId() == null) {
+            log.debug("action=token_revoke skip userId={} reason=no_jti", userId);
+            return;
+        }
+        if (revokedTokenRepository.existsByTokenId(claims.getId())) {
+            // Repeated logout (double click, client retry); token_id is unique
+            list.revokeTokenId(claims.getId());
+            log.debug("action=token_revoke skip userId={} reason=already_revoked", userId);
+            return;
+        }
+        LocalDateTime expiresAt = toLocal(claims.getExpiration().getTime() / 1000);
+        revokedTokenRepository.save(RevokedToken.forToken(claims.getId(), userId, expiresAt));
+        // Applied before commit: a rollback can only over-revoke, which is the safe direction
+        list.revokeTokenId(claims.getId());
+        log.info("action=token_revoke success userId={}", userId);
+    }
+
+    // Password or role change: every access token issued so far stops working.
+    // JWT iat has second precision, so the cutoff is truncated to let a token minted in the same
+    // second as the change (the caller's replacement token) through.
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        long cutoff = System.currentTimeMillis() / 1000;
+        LocalDateTime issuedBefore = toLocal(cutoff);
+        revokedTokenRepository.save(RevokedToken.forUser(userId, issuedBefore, issuedBefore.plus(accessTokenTtl)));
+        list.revokeIssuedBefore(userId, cutoff);
+        log.info("action=token_revoke_all success userId={}", userId);
+    }
+
+    // Picks up revocations made on other nodes. The overlap re-reads recent rows so that
+    // transactions committing out of created_at order (or replica lag) are not missed.
+    @Scheduled(fixedDelayString = "${app.security.revocation.refresh-interval:PT5S}")
+    public void refresh() {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime since = lastRefreshStart.minus(refreshOverlap);
+        try {
+            List<RevokedToken> rows = revokedTokenRepository.findByCreatedAtGreaterThanEqual(since);
+            TokenRevocationList current = list;
+            rows.forEach(row -> apply(current, row));
+            lastRefreshStart = start;
+            log.debug("action=token_revocation_refresh success rows={}", rows.size());
+        } catch (RuntimeException ex) {
+            log.warn("action=token_revocation_refresh fail reason={}", ex.getClass().getSimpleName());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.security.revocation.rebuild-interval:PT1H}",
+            fixedDelayString = "${app.security.revocation.rebuild-interval:PT1H}")
+    public void rebuild() {
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            int purged = revokedTokenRepository.deleteExpired(start);
+            List<RevokedToken> live = revokedTokenRepository.findByExpiresAtAfter(start);
+
+            // Size for the live set so the false-positive rate holds as revocations grow
+            TokenRevocationList fresh = new TokenRevocationList(
+                    Math.max(expectedTokenIds, 2L * live.size()), falsePositiveRate);
+            live.forEach(row -> apply(fresh, row));
+            list = fresh;
+            lastRefreshStart = start;
+
+            log.info("action=token_revocation_rebuild success tokenIds={} userCutoffs={} purged={}",
+                    fresh.tokenIdCount(), fresh.userCutoffCount(), purged);
+        } catch (RuntimeException ex) {
+            log.warn("action=token_revocation_rebuild fail reason={}", ex.getClass().getSimpleName());
+            if (lastRefreshStart == null) {
+                lastRefreshStart = start.minus(accessTokenTtl);
+            }
+            return;
+        }
+        // Revocations applied to the old list while the new one was being built
+        refresh();
+    }
+
+    private void apply(TokenRevocationList target, RevokedToken row) {
+        if (row.getTokenId() != null) {
+            target.revokeTokenId(row.getTokenId());
+        }
+        if (row.getIssuedBefore() != null) {
+            target.revokeIssuedBefore(row.getUserId(), row.getIssuedBefore().atZone(ZoneId.systemDefault()).toEpochSecond());
+        }
+    }
+
+    private static LocalDateTime toLocal(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.service.FreeWindowFinder.Interval;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Fixed-resolution bookability bitmap of one spot: bit i is set when
+ * [start + i * resolution, start + (i + 1) * resolution) lies inside an availability slot and
+ * overlaps no blocking booking.
+ * <p>
+ * Calendars are long runs of open and closed time, so the bitmap is sent as run lengths (closed run
+ * first, then alternating, each an unsigned LEB128 varint); when that is not smaller, e.g. for a
+ * heavily fragmented month, the raw bitmap is sent instead (LSB-first per byte). A month at 15
+ * minutes is 2976 bits, so the payload never exceeds 372 bytes and is usually a few dozen.
+ */
+final class AvailabilityBitmap {
+
+    static final String RUNS = "runs";
+    static final String BITMAP = "bitmap";
+
+    record Encoded(String encoding, byte[] data) {}
+
+    private AvailabilityBitmap() {}
+
+    static BitSet build(List<Interval> slots, List<Interval> busy, LocalDateTime start, Duration resolution, int size) {
+        long step = resolution.toMinutes();
+        BitSet bits = new BitSet(size);
+        for (Interval slot : slots) {
+            // Only cells entirely inside the slot are bookable
+            int from = (int) Math.max(0, ceilDiv(minutesFrom(start, slot.start()), step));
+            int to = (int) Math.min(size, Math.floorDiv(minutesFrom(start, slot.end()), step));
+            if (from < to) {
+                bits.set(from, to);
+            }
+        }
+        for (Interval b : busy) {
+            // Any cell a booking touches is taken
+            int from = (int) Math.max(0, Math.floorDiv(minutesFrom(start, b.start()), step));
+            int to = (int) Math.min(size, ceilDiv(minutesFrom(start, b.end()), step));
+            if (from < to) {
+                bits.clear(from, to);
+            }
+        }
+        return bits;
+    }
+
+    static Encoded encode(BitSet bits, int size) {
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        int pos = 0;
+        boolean open = false;
+        while (pos < size) {
+            int next = open ? bits.nextClearBit(pos) : bits.nextSetBit(pos);
+            int end = (next < 0 || next > size) ? size : next;
+            writeVarint(runs, end - pos);
+            pos = end;
+            open = !open;
+        }
+
+        int rawLength = (size + 7) / 8;
+        if (runs.size() < rawLength) {
+            return new Encoded(RUNS, runs.toByteArray());
+        }
+        byte[] raw = new byte[rawLength];
+        byte[] set = bits.toByteArray(); // little-endian, LSB-first, trailing zero bytes dropped
+        System.arraycopy(set, 0, raw, 0, Math.min(set.length, rawLength));
+        return new Encoded(BITMAP, raw);
+    }
+
+    // Inverse of encode(); documents the format the booking UI decodes
+    static BitSet decode(Encoded encoded, int size) {
+        if (BITMAP.equals(encoded.encoding())) {
+            return BitSet.valueOf(encoded.data());
+        }
+        BitSet bits = new BitSet(size);
+        byte[] data = encoded.data();
+        int pos = 0;
+        int i = 0;
+        boolean open = false;
+        while (i < data.length) {
+            int run = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[i++];
+                run |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (open) {
+                bits.set(pos, pos + run);
+            }
+            pos += run;
+            open = !open;
+        }
+        return bits;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static long minutesFrom(LocalDateTime start, LocalDateTime t) {
+        return Duration.between(start, t).toMinutes();
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AvailabilityCalendarResponse;
+import com.example.demo.dto.DataVersion;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.FreeWindowFinder.Interval;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Month-grid payload for the booking UI: the spot's schedule minus its PENDING/APPROVED bookings,
+ * merged server-side into an {@link AvailabilityBitmap}.
+ */
+@Service
+public class AvailabilityCalendarService {
+
+    // Cells must tile a day exactly
+    private static final Set<Integer> SLOT_MINUTES = Set.of(5, 10, 15, 20, 30, 60);
+
+    private final ParkingRepository parkingRepository;
+    private final BookingRepository bookingRepository;
+    private final int maxDays;
+
+    public AvailabilityCalendarService(ParkingRepository parkingRepository, BookingRepository bookingRepository,
+                                       @Value("${app.parking.calendar.max-days:62}") int maxDays) {
+        this.parkingRepository = parkingRepository;
+        this.bookingRepository = bookingRepository;
+        this.maxDays = maxDays;
+    }
+
+    // Schedule edits bump the spot's updatedAt, booking changes the booking aggregate
+    public DataVersion version(Long parkingId) {
+        return bookingRepository.versionForParking(parkingId).and(parkingRepository.versionForSpot(parkingId));
+    }
+
+    // Called before the ETag check too, so a bad request is a 400 rather than a 304
+    public void checkRequest(int days, int slotMinutes) {
+        if (days < 1 || days > maxDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days must be between 1 and " + maxDays);
+        }
+        if (!SLOT_MINUTES.contains(slotMinutes)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "slotMinutes must be one of 5, 10, 15, 20, 30, 60");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityCalendarResponse calendar(Long parkingId, LocalDate from, int days, int slotMinutes) {
+        checkRequest(days, slotMinutes);
+        Parking p = parkingRepository.findWithAvailabilityByIdIn(List.of(parkingId)).stream().findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parking spot not found"));
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = start.plusDays(days);
+        int size = days * (24 * 60 / slotMinutes);
+
+        BitSet bits = new BitSet(size);
+        if (p.isActive()) {
+            List<Interval> busy = bookingRepository.findBusyIntervals(List.of(parkingId), start, end, BookingStatus.BLOCKING).stream()
+                    .map(b -> new Interval(b.getStart(), b.getEnd()))
+                    .toList();
+            bits = AvailabilityBitmap.build(FreeWindowFinder.slots(p, start, end), busy, start,
+                    Duration.ofMinutes(slotMinutes), size);
+        }
+
+        AvailabilityBitmap.Encoded encoded = AvailabilityBitmap.encode(bits, size);
+        return new AvailabilityCalendarResponse(parkingId, start, slotMinutes, size, encoded.encoding(),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.data()));
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.CreateBookingRequest;
+import com.example.demo.dto.DataVersion;
 import com.example.demo.dto.UpdateBookingStatusRequest;
 import com.example.demo.model.Booking;
 
 import java.util.List;
 
 public interface BookingService {
+
+    // A page of a change feed; cursor is where the next call resumes
+    record ChangePage(List<Booking> bookings, String cursor, boolean hasMore) {}
+
     Booking create(Long driverId, CreateBookingRequest req);
     List<Booking> listMine(Long driverId);
     List<Booking> listForOwner(Long ownerId);
+    DataVersion mineVersion(Long driverId);
+    DataVersion ownerVersion(Long ownerId);
+    ChangePage changesMine(Long driverId, String since, int limit);
+    ChangePage changesForOwner(Long ownerId, String since, int limit);
     Booking updateStatus(Long ownerId, Long bookingId, UpdateBookingStatusRequest req);
     Booking cancel(Long driverId, Long bookingId);
 }
@@ -1,20 +1,28 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.CreateBookingRequest;
+import com.example.demo.dto.DataVersion;
 import com.example.demo.dto.UpdateBookingStatusRequest;
 import com.example.demo.model.*;
 import com.example.demo.repository.BookingRepository;
 import com.example.demo.repository.DriverRatingRepository;
 import com.example.demo.repository.ParkingRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.PendingBookingExpiryJob.PendingBookingCreated;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -26,21 +34,30 @@ public class BookingServiceImpl implements BookingService {
     private final ParkingRepository parkingRepository;
     private final UserRepository userRepository;
     private final DriverRatingRepository driverRatingRepository; // NEW
+    private final ApplicationEventPublisher events;
 
-    private static final EnumSet<BookingStatus> ACTIVE_STATUSES =
-            EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED);
+    // updatedAt is stamped before commit, so a row can become visible after newer ones; feeds stop
+    // this far behind now so a cursor never moves past a row that is still being written
+    @Value("${app.bookings.changes.settle-lag:PT2S}")
+    private Duration changesSettleLag = Duration.ofSeconds(2);
+
+    @Value("${app.bookings.changes.max-page-size:500}")
+    private int changesMaxPageSize = 500;
 
     public BookingServiceImpl(BookingRepository bookingRepository,
                               ParkingRepository parkingRepository,
                               UserRepository userRepository,
-                              DriverRatingRepository driverRatingRepository) { // NEW
+                              DriverRatingRepository driverRatingRepository, // NEW
+                              ApplicationEventPublisher events) {
         this.bookingRepository = bookingRepository;
         this.parkingRepository = parkingRepository;
         this.userRepository = userRepository;
         this.driverRatingRepository = driverRatingRepository; // NEW
+        this.events = events;
     }
 
     @Override
+    @Timed(value = "easypark.booking.create", description = "Booking creation including availability checks")
     public Booking create(Long driverId, CreateBookingRequest req) {
         if (req.getStartTime() == null || req.getEndTime() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startTime and endTime are required");
@@ -69,7 +86,7 @@ public class BookingServiceImpl implements BookingService {
                 parking.getId(),
                 req.getStartTime(),
                 req.getEndTime(),
-                ACTIVE_STATUSES
+                BookingStatus.BLOCKING
         );
 
         if (overlaps > 0) {
@@ -84,7 +101,16 @@ public class BookingServiceImpl implements BookingService {
         booking.setStatus(BookingStatus.PENDING);
         booking.setTotalPrice(calculateTotalPrice(parking, req.getStartTime(), req.getEndTime()));
 
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        publishSlotChange(saved);
+        events.publishEvent(new PendingBookingCreated(saved.getId(), saved.getCreatedAt(), saved.getStartTime()));
+        return saved;
+    }
+
+    // The booking started or stopped blocking its slot, which can change cached search results
+    private void publishSlotChange(Booking booking) {
+        events.publishEvent(new BookingChanged(booking.getParking().getId(),
+                SpotTraits.of(booking.getParking()), booking.getStartTime(), booking.getEndTime()));
     }
 
     private void validateParkingAvailability(Parking parking, LocalDateTime start, LocalDateTime end) {
@@ -147,6 +173,11 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<Booking> listMine(Long driverId) {
         List<Booking> bookings = bookingRepository.findMine(driverId);
+        addOwnerPhones(bookings);
+        return bookings;
+    }
+
+    private void addOwnerPhones(List<Booking> bookings) {
         for (Booking booking : bookings) {
             if (booking.getParking() != null && booking.getParking().getOwnerId() != null) {
                 Long ownerId = booking.getParking().getOwnerId();
@@ -155,13 +186,29 @@ public class BookingServiceImpl implements BookingService {
                 });
             }
         }
-        return bookings;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DataVersion mineVersion(Long driverId) {
+        return bookingRepository.versionForDriver(driverId);
+    }
+
+    // Owner ratings are not in the aggregate: rating a driver always updates that driver's row
+    @Override
+    @Transactional(readOnly = true)
+    public DataVersion ownerVersion(Long ownerId) {
+        return bookingRepository.versionForOwner(ownerId);
     }
 
     @Override
     public List<Booking> listForOwner(Long ownerId) {
         List<Booking> bookings = bookingRepository.findForOwner(ownerId);
+        markRatedByOwner(ownerId, bookings);
+        return bookings;
+    }
 
+    private void markRatedByOwner(Long ownerId, List<Booking> bookings) {
         // --- NEW: Map which bookings have already been rated by this owner ---
         List<DriverRating> ratings = driverRatingRepository.findByOwnerId(ownerId);
         Set<Long> ratedBookingIds = ratings.stream()
@@ -172,8 +219,51 @@ public class BookingServiceImpl implements BookingService {
             booking.setRatedByOwner(ratedBookingIds.contains(booking.getId()));
         }
         // --------------------------------------------------------------------
+    }
 
-        return bookings;
+    // ============================
+    // Change feeds: bookings updated after the client's cursor, oldest first
+    // ============================
+
+    @Override
+    public ChangePage changesMine(Long driverId, String since, int limit) {
+        ChangeCursor after = ChangeCursor.decode(since);
+        int size = pageSize(limit);
+        List<Booking> rows = bookingRepository.findMineChangedAfter(driverId, after.updatedAt(), after.id(),
+                LocalDateTime.now().minus(changesSettleLag), PageRequest.of(0, size + 1));
+        ChangePage page = toPage(rows, after, size);
+        addOwnerPhones(page.bookings());
+        return page;
+    }
+
+    @Override
+    public ChangePage changesForOwner(Long ownerId, String since, int limit) {
+        ChangeCursor after = ChangeCursor.decode(since);
+        int size = pageSize(limit);
+        List<Booking> rows = bookingRepository.findForOwnerChangedAfter(ownerId, after.updatedAt(), after.id(),
+                LocalDateTime.now().minus(changesSettleLag), PageRequest.of(0, size + 1));
+        ChangePage page = toPage(rows, after, size);
+        if (!page.bookings().isEmpty()) {
+            markRatedByOwner(ownerId, page.bookings());
+        }
+        return page;
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, changesMaxPageSize);
+    }
+
+    // One extra row was fetched to tell whether another page follows
+    private ChangePage toPage(List<Booking> rows, ChangeCursor after, int size) {
+        boolean hasMore = rows.size() > size;
+        List<Booking> page = hasMore ? rows.subList(0, size) : rows;
+        ChangeCursor next = page.isEmpty()
+                ? after
+                : new ChangeCursor(page.get(page.size() - 1).getUpdatedAt(), page.get(page.size() - 1).getId());
+        return new ChangePage(page, next.encode(), hasMore);
     }
 
     @Override
@@ -195,8 +285,15 @@ public class BookingServiceImpl implements BookingService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Status must be APPROVED or REJECTED");
         }
 
+        // Conditional, so a booking the expiry job released in the meantime is never revived
+        if (bookingRepository.decidePending(bookingId, newStatus, LocalDateTime.now()) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Booking is no longer PENDING");
+        }
         booking.setStatus(newStatus);
-        return bookingRepository.save(booking);
+        if (!BookingStatus.BLOCKING.contains(newStatus)) {
+            publishSlotChange(booking);
+        }
+        return booking;
     }
 
     @Override
@@ -208,7 +305,8 @@ public class BookingServiceImpl implements BookingService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to cancel this booking");
         }
 
-        if (booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.REJECTED) {
+        if (booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.REJECTED
+                || booking.getStatus() == BookingStatus.EXPIRED) {
             return booking;
         }
 
@@ -217,7 +315,9 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(BookingStatus.CANCELLED);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        publishSlotChange(saved);
+        return saved;
     }
 
     private BookingStatus parseStatus(String raw) {
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import com.example.demo.dto.UserSummary;
 import com.example.demo.model.Booking;
+import io.micrometer.core.annotation.Timed;
 import com.sendgrid.Method;
 import com.sendgrid.Request;
 import com.sendgrid.Response;
@@ -32,6 +33,7 @@ public class EmailServiceImpl implements EmailService {
     private String sendGridApiKey;
 
     @Override
+    @Timed(value = "easypark.email.send", extraTags = {"type", "password_reset"})
     public void sendPasswordResetEmail(String toEmail, String resetLink) {
         log.info("action=email_reset start to={}", safeEmail(toEmail));
 
@@ -52,6 +54,7 @@ public class EmailServiceImpl implements EmailService {
 
     @Override
     @Async
+    @Timed(value = "easypark.email.send", extraTags = {"type", "booking_approved"})
     public void sendBookingApprovedNotification(String toEmail, Booking booking, UserSummary ownerSummary) {
         log.info("action=email_approved start to={}", safeEmail(toEmail));
 
@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BookingExportRow;
+import com.example.demo.dto.PaymentExportRow;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams booking and payment histories as CSV or NDJSON.
+ * <p>
+ * Rows come from a forward-only cursor over flat projections and are written straight to the
+ * response, so heap usage does not depend on the number of rows exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = MediaType.parseMediaType(mediaType);
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() { return mediaType; }
+        public String getExtension() { return extension; }
+
+        public static Format parse(String raw) {
+            try {
+                return Format.valueOf(raw.trim().toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+            }
+        }
+    }
+
+    private static final List<Column<BookingExportRow>> BOOKING_COLUMNS = List.of(
+            new Column<>("bookingId", BookingExportRow::getBookingId),
+            new Column<>("parkingId", BookingExportRow::getParkingId),
+            new Column<>("parkingLocation", BookingExportRow::getParkingLocation),
+            new Column<>("driverId", BookingExportRow::getDriverId),
+            new Column<>("startTime", BookingExportRow::getStartTime),
+            new Column<>("endTime", BookingExportRow::getEndTime),
+            new Column<>("status", BookingExportRow::getStatus),
+            new Column<>("totalPrice", BookingExportRow::getTotalPrice),
+            new Column<>("createdAt", BookingExportRow::getCreatedAt)
+    );
+
+    private static final List<Column<PaymentExportRow>> PAYMENT_COLUMNS = List.of(
+            new Column<>("paymentId", PaymentExportRow::getPaymentId),
+            new Column<>("bookingId", PaymentExportRow::getBookingId),
+            new Column<>("driverId", PaymentExportRow::getDriverId),
+            new Column<>("ownerId", PaymentExportRow::getOwnerId),
+            new Column<>("amount", PaymentExportRow::getAmount),
+            new Column<>("currency", PaymentExportRow::getCurrency),
+            new Column<>("provider", PaymentExportRow::getProvider),
+            new Column<>("status", PaymentExportRow::getStatus),
+            new Column<>("paidAt", PaymentExportRow::getPaidAt),
+            new Column<>("createdAt", PaymentExportRow::getCreatedAt)
+    );
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(BookingRepository bookingRepository,
+                         PaymentRepository paymentRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportBookingsForDriver(Long driverId, Format format, OutputStream out) {
+        export("bookings_mine", driverId, () -> bookingRepository.streamMine(driverId), BOOKING_COLUMNS, format, out);
+    }
+
+    public void exportBookingsForOwner(Long ownerId, Format format, OutputStream out) {
+        export("bookings_owner", ownerId, () -> bookingRepository.streamForOwner(ownerId), BOOKING_COLUMNS, format, out);
+    }
+
+    public void exportPaymentsForDriver(Long driverId, Format format, OutputStream out) {
+        export("payments_mine", driverId, () -> paymentRepository.streamMine(driverId), PAYMENT_COLUMNS, format, out);
+    }
+
+    public void exportPaymentsForOwner(Long ownerId, Format format, OutputStream out) {
+        export("payments_owner", ownerId, () -> paymentRepository.streamForOwner(ownerId), PAYMENT_COLUMNS, format, out);
+    }
+
+    private <T> void export(String name, Long userId, Supplier<Stream<T>> query,
+                            List<Column<T>> columns, Format format, OutputStream out) {
+        log.info("action=export_{} start userId={} format={}", name, userId, format);
+        long started = System.nanoTime();
+
+        // The cursor must stay inside one transaction; the connection is held until the last row is written.
+        Long rows = readOnlyTx.execute(status -> {
+            long count = 0;
+            try (Stream<T> stream = query.get()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+                if (format == Format.CSV) {
+                    writeCsvHeader(writer, columns);
+                }
+                Iterator<T> it = stream.iterator();
+                while (it.hasNext()) {
+                    T row = it.next();
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, columns, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    count++;
+                }
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return count;
+        });
+
+        log.info("action=export_{} success userId={} rows={} tookMs={}",
+                name, userId, rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private <T> void writeCsvHeader(Writer writer, List<Column<T>> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+    }
+
+    private <T> void writeCsvRow(Writer writer, List<Column<T>> columns, T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).value().apply(row);
+            if (value instanceof String text) {
+                writer.write(csvEscape(text));
+            } else if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Quotes cells per RFC 4180 and neutralises leading formula characters (spreadsheet injection)
+    static String csvEscape(String text) {
+        String safe = text;
+        if (!safe.isEmpty() && "=+-@".indexOf(safe.charAt(0)) >= 0) {
+            safe = "'" + safe;
+        }
+        boolean needsQuotes = safe.indexOf(',') >= 0 || safe.indexOf('"') >= 0
+                || safe.indexOf('\n') >= 0 || safe.indexOf('\r') >= 0;
+        return needsQuotes ? "\"" + safe.replace("\"", "\"\"") + "\"" : safe;
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {}
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AvailabilityType;
+import com.example.demo.model.Parking;
+import com.example.demo.model.ParkingAvailability;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Gap scan over sorted intervals: the spot's availability slots inside a horizon minus its
+ * blocking bookings. Bookings are merged into disjoint runs once; each slot then binary-searches
+ * its first overlapping run and walks forward, so a horizon with S slots and B bookings costs
+ * O(B log B + S log B + gaps) instead of probing candidate start times.
+ * <p>
+ * Slots are scanned one by one and never merged, because a booking has to fit inside a single
+ * slot (the same rule BookingServiceImpl enforces on create).
+ */
+final class FreeWindowFinder {
+
+    record Interval(LocalDateTime start, LocalDateTime end) {}
+
+    private FreeWindowFinder() {}
+
+    /** The spot's availability slots clipped to [from, to), sorted by start. */
+    static List<Interval> slots(Parking p, LocalDateTime from, LocalDateTime to) {
+        return slots(p.getAvailabilityType(), p.getAvailabilityList(), from, to);
+    }
+
+    static List<Interval> slots(AvailabilityType type, List<ParkingAvailability> availability,
+                                LocalDateTime from, LocalDateTime to) {
+        List<Interval> out = new ArrayList<>();
+        if (type == AvailabilityType.SPECIFIC) {
+            for (ParkingAvailability slot : availability) {
+                if (slot.getStartDateTime() != null && slot.getEndDateTime() != null) {
+                    addClipped(out, slot.getStartDateTime(), slot.getEndDateTime(), from, to);
+                }
+            }
+        } else if (type == AvailabilityType.RECURRING) {
+            for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+                int dbDay = day.getDayOfWeek().getValue() % 7; // 0 = Sunday
+                for (ParkingAvailability slot : availability) {
+                    if (slot.getDayOfWeek() != null && slot.getDayOfWeek() == dbDay
+                            && slot.getStartTime() != null && slot.getEndTime() != null) {
+                        addClipped(out, day.atTime(slot.getStartTime()), day.atTime(slot.getEndTime()), from, to);
+                    }
+                }
+            }
+        }
+        out.sort(Comparator.comparing(Interval::start));
+        return out;
+    }
+
+    /** Sorted-by-start bookings folded into disjoint, sorted runs. */
+    static List<Interval> mergeBusy(List<Interval> sortedByStart) {
+        List<Interval> out = new ArrayList<>();
+        for (Interval b : sortedByStart) {
+            Interval last = out.isEmpty() ? null : out.get(out.size() - 1);
+            if (last != null && !b.start().isAfter(last.end())) {
+                if (b.end().isAfter(last.end())) {
+                    out.set(out.size() - 1, new Interval(last.start(), b.end()));
+                }
+            } else {
+                out.add(b);
+            }
+        }
+        return out;
+    }
+
+    /** The earliest free gaps of at least {@code duration}, sorted by start, at most {@code limit}. */
+    static List<Interval> gaps(List<Interval> slots, List<Interval> busy, Duration duration, int limit) {
+        Comparator<Interval> order = Comparator.comparing(Interval::start).thenComparing(Interval::end);
+        List<Interval> out = new ArrayList<>();
+        for (Interval slot : slots) {
+            // Slots are sorted by start, so once enough gaps are kept no later slot can beat them
+            if (out.size() >= limit && !slot.start().isBefore(out.get(limit - 1).start())) {
+                break;
+            }
+            LocalDateTime cursor = slot.start();
+            int i = firstEndingAfter(busy, cursor);
+            for (; i < busy.size() && busy.get(i).start().isBefore(slot.end()); i++) {
+                Interval run = busy.get(i);
+                if (fits(cursor, run.start(), duration)) {
+                    out.add(new Interval(cursor, run.start()));
+                }
+                if (run.end().isAfter(cursor)) {
+                    cursor = run.end();
+                }
+            }
+            if (fits(cursor, slot.end(), duration)) {
+                out.add(new Interval(cursor, slot.end()));
+            }
+            // Overlapping slots (specific ranges) can yield the same gap twice or out of order
+            out = new ArrayList<>(out.stream().distinct().sorted(order).limit(limit).toList());
+        }
+        return out;
+    }
+
+    private static int firstEndingAfter(List<Interval> runs, LocalDateTime t) {
+        int lo = 0, hi = runs.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runs.get(mid).end().isAfter(t)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean fits(LocalDateTime start, LocalDateTime end, Duration duration) {
+        return Duration.between(start, end).compareTo(duration) >= 0;
+    }
+
+    private static void addClipped(List<Interval> out, LocalDateTime start, LocalDateTime end,
+                                   LocalDateTime from, LocalDateTime to) {
+        LocalDateTime s = start.isBefore(from) ? from : start;
+        LocalDateTime e = end.isAfter(to) ? to : end;
+        if (s.isBefore(e)) {
+            out.add(new Interval(s, e));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BusyInterval;
+import com.example.demo.dto.FreeWindowResponse;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.FreeWindowFinder.Interval;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "when is this spot, or any spot near me, free for N minutes?" with the earliest gaps
+ * that fit both the availability schedule and the PENDING/APPROVED bookings. Everything a search
+ * needs is read in two queries (spots with slots, blocking intervals of all candidates), then
+ * scanned in memory by {@link FreeWindowFinder}.
+ */
+@Service
+public class FreeWindowService {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final ParkingRepository parkingRepository;
+    private final BookingRepository bookingRepository;
+    private final Duration defaultHorizon;
+    private final Duration maxHorizon;
+    private final double defaultRadiusKm;
+    private final int maxCandidates;
+    private final int maxLimit;
+
+    public FreeWindowService(ParkingRepository parkingRepository, BookingRepository bookingRepository,
+                             @Value("${app.parking.free-windows.default-horizon:P7D}") Duration defaultHorizon,
+                             @Value("${app.parking.free-windows.max-horizon:P31D}") Duration maxHorizon,
+                             @Value("${app.parking.free-windows.default-radius-km:2}") double defaultRadiusKm,
+                             @Value("${app.parking.free-windows.max-candidates:200}") int maxCandidates,
+                             @Value("${app.parking.free-windows.max-limit:50}") int maxLimit) {
+        this.parkingRepository = parkingRepository;
+        this.bookingRepository = bookingRepository;
+        this.defaultHorizon = defaultHorizon;
+        this.maxHorizon = maxHorizon;
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxCandidates = maxCandidates;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * With a parkingId: that spot's earliest gaps. With lat/lng: the earliest gap of each active spot
+     * within the radius, earliest first (nearer spots first on equal starts).
+     */
+    @Transactional(readOnly = true)
+    public List<FreeWindowResponse> find(Long parkingId, Double lat, Double lng, Double radiusKm,
+                                         int durationMinutes, LocalDateTime from, LocalDateTime to, int limit) {
+        if (parkingId == null && (lat == null || lng == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "parkingId or lat and lng are required");
+        }
+        if (durationMinutes < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "durationMinutes must be positive");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+
+        // Nothing starts in the past; minute precision like the booking form
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime start = (from == null || from.isBefore(now)) ? now : from;
+        LocalDateTime end = (to != null) ? to : start.plus(defaultHorizon);
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (Duration.between(start, end).compareTo(maxHorizon) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The search horizon is limited to " + maxHorizon.toDays() + " days");
+        }
+        Duration duration = Duration.ofMinutes(durationMinutes);
+
+        if (parkingId != null) {
+            Parking p = parkingRepository.findWithAvailabilityByIdIn(List.of(parkingId)).stream().findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parking spot not found"));
+            if (!p.isActive()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parking spot is not active");
+            }
+            return windows(List.of(p), start, end, duration, limit).stream().limit(limit).toList();
+        }
+
+        List<Long> nearby = nearestSpotIds(lat, lng, radiusKm == null ? defaultRadiusKm : radiusKm);
+        if (nearby.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Parking> byId = parkingRepository.findWithAvailabilityByIdIn(nearby).stream()
+                .collect(Collectors.toMap(Parking::getId, p -> p));
+        List<Parking> spots = nearby.stream().map(byId::get).filter(p -> p != null && p.isActive()).toList();
+
+        // Stable sort keeps distance order among equal starts
+        return windows(spots, start, end, duration, 1).stream()
+                .sorted(Comparator.comparing(FreeWindowResponse::getStart))
+                .limit(limit)
+                .toList();
+    }
+
+    // Up to perSpot gaps for each spot, in the order of the spots
+    private List<FreeWindowResponse> windows(List<Parking> spots, LocalDateTime from, LocalDateTime to,
+                                             Duration duration, int perSpot) {
+        Map<Long, List<Interval>> busyBySpot = new HashMap<>();
+        List<Long> ids = spots.stream().map(Parking::getId).toList();
+        for (BusyInterval b : bookingRepository.findBusyIntervals(ids, from, to, BookingStatus.BLOCKING)) {
+            busyBySpot.computeIfAbsent(b.getParkingId(), k -> new ArrayList<>()).add(new Interval(b.getStart(), b.getEnd()));
+        }
+
+        List<FreeWindowResponse> out = new ArrayList<>();
+        for (Parking p : spots) {
+            List<Interval> busy = FreeWindowFinder.mergeBusy(busyBySpot.getOrDefault(p.getId(), List.of()));
+            for (Interval gap : FreeWindowFinder.gaps(FreeWindowFinder.slots(p, from, to), busy, duration, perSpot)) {
+                out.add(new FreeWindowResponse(p.getId(), gap.start(), gap.end()));
+            }
+        }
+        return out;
+    }
+
+    // Bounding box on the (lat, lng) index, then exact distance; the nearest max-candidates spots
+    private List<Long> nearestSpotIds(double lat, double lng, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double dLng = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(lat))));
+        return parkingRepository.findMapLocationsWithin(lat - dLat, lat + dLat, lng - dLng, lng + dLng).stream()
+                .map(s -> Map.entry(s.getParkingId(), ParkingRanker.distanceKm(lat, lng, s.getLat(), s.getLng())))
+                .filter(e -> e.getValue() <= radiusKm)
+                .sorted(Map.Entry.comparingByValue())
+                .limit(maxCandidates)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of ids keyed by deadline tick: a ring of buckets where an id with deadline
+ * tick t sits in bucket t mod size. Scheduling and cancelling are O(1); each advance visits only
+ * the buckets of the ticks that passed (at most one full turn, however long the pause) and fires
+ * the ids whose deadline is due. Deadlines more than one turn ahead simply stay in their bucket
+ * for the extra rounds.
+ */
+class HashedTimingWheel {
+
+    private final List<Set<Long>> buckets;
+    private final Map<Long, Long> deadlines = new HashMap<>();
+    private long lastTick;
+
+    HashedTimingWheel(int size, long startTick) {
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new HashSet<>());
+        }
+        this.lastTick = startTick;
+    }
+
+    /** Schedules (or moves) an id; a deadline that already passed fires on the next advance. */
+    synchronized void schedule(long id, long deadlineTick) {
+        cancel(id);
+        long tick = Math.max(deadlineTick, lastTick + 1);
+        deadlines.put(id, tick);
+        buckets.get(bucket(tick)).add(id);
+    }
+
+    synchronized void cancel(long id) {
+        Long tick = deadlines.remove(id);
+        if (tick != null) {
+            buckets.get(bucket(tick)).remove(id);
+        }
+    }
+
+    /** Moves the wheel to nowTick and returns the ids that came due, which are removed. */
+    synchronized List<Long> advance(long nowTick) {
+        List<Long> due = new ArrayList<>();
+        long steps = Math.min(nowTick - lastTick, buckets.size());
+        for (long t = lastTick + 1; t <= lastTick + steps; t++) {
+            Set<Long> bucket = buckets.get(bucket(t));
+            bucket.removeIf(id -> {
+                if (deadlines.get(id) <= nowTick) {
+                    deadlines.remove(id);
+                    due.add(id);
+                    return true;
+                }
+                return false;
+            });
+        }
+        lastTick = Math.max(lastTick, nowTick);
+        return due;
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+
+    private int bucket(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+}
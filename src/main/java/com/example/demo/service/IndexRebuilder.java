@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Rebuild bookkeeping shared by the in-memory spot indexes: at most one rebuild runs at a time, and
+ * spots changed while one is loading are re-read once the new index is in place.
+ * <p>
+ * The owning service supplies the load, which builds and publishes a fresh index and returns the
+ * counts for the success log line, and the per-spot refresh, which re-reads one spot into whatever
+ * index is current. Failures of either are logged under the service's logger as
+ * {@code <name>_rebuild} and {@code <name>_update}; the next rebuild corrects the index.
+ */
+final class IndexRebuilder {
+
+    @FunctionalInterface
+    interface Load {
+        String run() throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Refresh {
+        void run(Long parkingId) throws IOException;
+    }
+
+    private final Logger log;
+    private final String name;
+    private final Load load;
+    private final Refresh refresh;
+
+    private Set<Long> changedDuringRebuild; // guarded by this; non-null while a rebuild is loading
+
+    IndexRebuilder(Logger log, String name, Load load, Refresh refresh) {
+        this.log = log;
+        this.name = name;
+        this.load = load;
+        this.refresh = refresh;
+    }
+
+    void rebuild() {
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                return; // one already running
+            }
+            changedDuringRebuild = new HashSet<>();
+        }
+
+        long started = System.nanoTime();
+        Set<Long> missed;
+        try {
+            String counts = load.run();
+            log.info("action={}_rebuild success {} tookMs={}", name, counts, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("action={}_rebuild fail reason={}", name, ex.getClass().getSimpleName());
+        } finally {
+            synchronized (this) {
+                missed = changedDuringRebuild;
+                changedDuringRebuild = null;
+            }
+        }
+        missed.forEach(this::refresh);
+    }
+
+    /**
+     * Remembers the spot for the running rebuild to re-read. Returns false when none is running.
+     * Indexes that are swapped on rebuild still refresh the current one, which keeps serving
+     * until the swap; an index rebuilt in place skips the refresh instead.
+     */
+    synchronized boolean recordIfRebuilding(Long parkingId) {
+        if (changedDuringRebuild == null) {
+            return false;
+        }
+        changedDuringRebuild.add(parkingId);
+        return true;
+    }
+
+    void refresh(Long parkingId) {
+        update(parkingId, refresh);
+    }
+
+    void update(Long parkingId, Refresh update) {
+        try {
+            update.run(parkingId);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("action={}_update fail parkingId={} reason={}", name, parkingId, ex.getClass().getSimpleName());
+        }
+    }
+}
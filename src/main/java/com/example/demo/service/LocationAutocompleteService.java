@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LocationSuggestion;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Location autocomplete over active spots, served from an in-memory {@link LocationPrefixIndex}.
+ * <p>
+ * Kept current the same way as the map clusters: loaded at startup, updated per spot from the
+ * events ParkingService publishes after commit, and rebuilt periodically and after bulk imports.
+ */
+@Service
+public class LocationAutocompleteService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationAutocompleteService.class);
+
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final ParkingRepository parkingRepository;
+    private final int maxLimit;
+
+    private final IndexRebuilder rebuilder =
+            new IndexRebuilder(log, "location_index", this::loadIndex, this::refreshSpot);
+
+    private volatile LocationPrefixIndex index = new LocationPrefixIndex();
+
+    public LocationAutocompleteService(ParkingRepository parkingRepository,
+                                       @Value("${app.parking.autocomplete.max-limit:20}") int maxLimit) {
+        this.parkingRepository = parkingRepository;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuilder.rebuild();
+    }
+
+    public List<LocationSuggestion> complete(String query, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        return index.complete(query, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        rebuilder.recordIfRebuilding(event.parkingId());
+        rebuilder.refresh(event.parkingId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        rebuilder.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.parking.autocomplete.rebuild-interval:PT1H}",
+            fixedDelayString = "${app.parking.autocomplete.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuilder.rebuild();
+    }
+
+    private String loadIndex() {
+        List<LocationSuggestion> spots = parkingRepository.findLocationSuggestions();
+        LocationPrefixIndex fresh = new LocationPrefixIndex();
+        spots.forEach(fresh::upsert);
+        index = fresh;
+        return "spots=" + spots.size();
+    }
+
+    private void refreshSpot(Long parkingId) {
+        LocationPrefixIndex target = index;
+        parkingRepository.findLocationSuggestion(parkingId)
+                .ifPresentOrElse(target::upsert, () -> target.remove(parkingId));
+    }
+}
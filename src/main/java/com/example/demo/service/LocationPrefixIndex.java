@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LocationSuggestion;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie over the normalised words of spot locations.
+ * <p>
+ * Normalisation lower-cases, strips accents and Hebrew niqqud, and maps Hebrew final letters to
+ * their regular forms, so "Tel Aviv", "tel-aviv" and "תל אביב" are all matched letter by letter as
+ * they are typed. Each node knows how many entries sit below it; a query walks to the node of
+ * every typed word, enumerates the smallest of those subtrees and keeps the spots whose other words
+ * also match, stopping at the limit. A one-word query costs O(query length + limit). With several
+ * words the walk may visit every entry of the narrowest subtree before the limit fills, because
+ * entries that miss another word are filtered out one by one: cost grows with the size of that
+ * subtree, up to the number of spots that match the rarest typed prefix.
+ */
+class LocationPrefixIndex {
+
+    private final Node root = new Node();
+    private final Map<Long, Indexed> spots = new HashMap<>();
+
+    private record Indexed(LocationSuggestion suggestion, Set<String> words) {}
+
+    synchronized void upsert(LocationSuggestion spot) {
+        remove(spot.getParkingId());
+        Set<String> words = new LinkedHashSet<>(words(spot.getLocation()));
+        if (words.isEmpty()) {
+            return;
+        }
+        spots.put(spot.getParkingId(), new Indexed(spot, words));
+        for (String word : words) {
+            insert(word, spot.getParkingId());
+        }
+    }
+
+    synchronized void remove(Long parkingId) {
+        Indexed old = spots.remove(parkingId);
+        if (old == null) {
+            return;
+        }
+        for (String word : old.words()) {
+            delete(word, parkingId);
+        }
+    }
+
+    /** Spots having a word that starts with each typed word, in word order, at most {@code limit}. */
+    synchronized List<LocationSuggestion> complete(String query, int limit) {
+        List<String> typed = words(query);
+        if (typed.isEmpty()) {
+            return List.of();
+        }
+
+        Node narrowest = null;
+        for (String word : typed) {
+            Node node = find(word);
+            if (node == null) {
+                return List.of();
+            }
+            if (narrowest == null || node.size < narrowest.size) {
+                narrowest = node;
+            }
+        }
+
+        Set<Long> seen = new LinkedHashSet<>();
+        List<LocationSuggestion> out = new ArrayList<>();
+        collect(narrowest, typed, limit, seen, out);
+        return out;
+    }
+
+    synchronized int size() {
+        return spots.size();
+    }
+
+    static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+        List<String> out = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // accents, niqqud
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(regularForm(c));
+            } else if (c != '\'' && c != '"' && c != '׳' && c != '״' && word.length() > 0) {
+                // Apostrophes and geresh/gershayim stay inside a word: ז'בוטינסקי, רח"ל
+                out.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            out.add(word.toString());
+        }
+        return out;
+    }
+
+    private static char regularForm(char c) {
+        return switch (c) {
+            case 'ך' -> 'כ';
+            case 'ם' -> 'מ';
+            case 'ן' -> 'נ';
+            case 'ף' -> 'פ';
+            case 'ץ' -> 'צ';
+            default -> c;
+        };
+    }
+
+    private void insert(String word, Long id) {
+        Node node = root;
+        node.size++;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.children.computeIfAbsent(word.charAt(i), k -> new Node());
+            node.size++;
+        }
+        node.ids.add(id);
+    }
+
+    private void delete(String word, Long id) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].children.get(word.charAt(i));
+        }
+        path[word.length()].ids.remove(id);
+        for (int i = word.length(); i >= 0; i--) {
+            path[i].size--;
+            if (i > 0 && path[i].size == 0) {
+                path[i - 1].children.remove(word.charAt(i - 1));
+            }
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    // Depth-first, so shorter completions come before longer ones sharing their prefix
+    private void collect(Node node, List<String> typed, int limit, Set<Long> seen, List<LocationSuggestion> out) {
+        for (Long id : node.ids) {
+            if (out.size() >= limit) {
+                return;
+            }
+            Indexed spot = spots.get(id);
+            if (seen.add(id) && matchesAll(spot.words(), typed)) {
+                out.add(spot.suggestion());
+            }
+        }
+        for (Node child : node.children.values()) {
+            if (out.size() >= limit) {
+                return;
+            }
+            collect(child, typed, limit, seen, out);
+        }
+    }
+
+    private static boolean matchesAll(Set<String> words, List<String> typed) {
+        for (String prefix : typed) {
+            if (words.stream().noneMatch(w -> w.startsWith(prefix))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        final Set<Long> ids = new LinkedHashSet<>();
+        int size; // words ending at or below this node
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AvailabilityType;
+import com.example.demo.model.Parking;
+import com.example.demo.model.ParkingAvailability;
+import com.example.demo.service.FreeWindowFinder.Interval;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which spots are busy when, over a fixed range of days: for every 15-minute cell a Roaring bitmap
+ * of the ids of spots with a blocking booking in it, plus a bitmap of active spots and each active
+ * spot's schedule.
+ * <p>
+ * "Free in all of these windows" is set algebra: OR the busy bitmaps of every cell the windows
+ * touch, subtract the result from the candidates, then check the schedule of the survivors only.
+ * Bookings are indexed per touched cell, so a window not aligned to 15 minutes is answered
+ * conservatively (a booking ending at 08:05 rules out a window starting at 08:10).
+ */
+class OccupancyIndex {
+
+    static final int CELL_MINUTES = 15;
+    private static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+
+    record SpotSchedule(AvailabilityType type, List<ParkingAvailability> slots) {
+
+        // Detached copy of the time fields only, so the index does not pin entities
+        static SpotSchedule of(Parking p) {
+            List<ParkingAvailability> copies = new ArrayList<>();
+            for (ParkingAvailability a : p.getAvailabilityList()) {
+                ParkingAvailability c = new ParkingAvailability();
+                c.setDayOfWeek(a.getDayOfWeek());
+                c.setStartTime(a.getStartTime());
+                c.setEndTime(a.getEndTime());
+                c.setStartDateTime(a.getStartDateTime());
+                c.setEndDateTime(a.getEndDateTime());
+                copies.add(c);
+            }
+            return new SpotSchedule(p.getAvailabilityType(), List.copyOf(copies));
+        }
+
+        boolean covers(Interval window) {
+            // A booking has to fit in one slot, so some slot clipped to the window must equal it
+            return FreeWindowFinder.slots(type, slots, window.start(), window.end()).contains(window);
+        }
+    }
+
+    private final LocalDateTime start;
+    private final int cells;
+    private final RoaringBitmap[] busy; // per cell, null while empty
+    private final RoaringBitmap active = new RoaringBitmap();
+    private final Map<Integer, SpotSchedule> schedules = new HashMap<>();
+
+    OccupancyIndex(LocalDate firstDay, int days) {
+        this.start = firstDay.atStartOfDay();
+        this.cells = days * CELLS_PER_DAY;
+        this.busy = new RoaringBitmap[cells];
+    }
+
+    LocalDateTime start() {
+        return start;
+    }
+
+    LocalDateTime end() {
+        return start.plusMinutes((long) cells * CELL_MINUTES);
+    }
+
+    synchronized void putSpot(int spotId, SpotSchedule schedule) {
+        active.add(spotId);
+        schedules.put(spotId, schedule);
+    }
+
+    synchronized void removeSpot(int spotId) {
+        active.remove(spotId);
+        schedules.remove(spotId);
+    }
+
+    synchronized void addBusy(int spotId, Interval booking) {
+        int to = cellAfter(booking.end());
+        for (int c = cellAt(booking.start()); c < to; c++) {
+            if (busy[c] == null) {
+                busy[c] = new RoaringBitmap();
+            }
+            busy[c].add(spotId);
+        }
+    }
+
+    /** Replaces the spot's busy cells inside [from, to) with the given bookings. */
+    synchronized void replaceBusy(int spotId, LocalDateTime from, LocalDateTime to, List<Interval> bookings) {
+        int end = cellAfter(to);
+        for (int c = cellAt(from); c < end; c++) {
+            if (busy[c] != null) {
+                busy[c].remove(spotId);
+            }
+        }
+        for (Interval b : bookings) {
+            addBusy(spotId, new Interval(b.start().isBefore(from) ? from : b.start(), b.end().isAfter(to) ? to : b.end()));
+        }
+    }
+
+    /**
+     * Active spots among the candidates (all active spots when null) that are bookable for every
+     * window: no blocking booking touches it and a single availability slot contains it.
+     */
+    synchronized RoaringBitmap free(RoaringBitmap candidates, List<Interval> windows) {
+        List<RoaringBitmap> touched = new ArrayList<>();
+        for (Interval w : windows) {
+            if (w.start().isBefore(start) || w.end().isAfter(end())) {
+                throw new IllegalArgumentException("Occupancy is indexed from " + start.toLocalDate()
+                        + " to " + end().toLocalDate().minusDays(1));
+            }
+            int to = cellAfter(w.end());
+            for (int c = cellAt(w.start()); c < to; c++) {
+                if (busy[c] != null) {
+                    touched.add(busy[c]);
+                }
+            }
+        }
+
+        RoaringBitmap out = candidates == null ? active.clone() : RoaringBitmap.and(candidates, active);
+        if (!touched.isEmpty()) {
+            out.andNot(FastAggregation.or(touched.iterator()));
+        }
+
+        RoaringBitmap unscheduled = new RoaringBitmap();
+        out.forEach((int id) -> {
+            SpotSchedule schedule = schedules.get(id);
+            for (Interval w : windows) {
+                if (!schedule.covers(w)) {
+                    unscheduled.add(id);
+                    return;
+                }
+            }
+        });
+        out.andNot(unscheduled);
+        return out;
+    }
+
+    synchronized int size() {
+        return active.getCardinality();
+    }
+
+    private int cellAt(LocalDateTime t) {
+        long minutes = Duration.between(start, t).toMinutes();
+        return (int) Math.max(0, Math.min(cells, Math.floorDiv(minutes, CELL_MINUTES)));
+    }
+
+    private int cellAfter(LocalDateTime t) {
+        long minutes = Duration.between(start, t).toMinutes();
+        return (int) Math.max(0, Math.min(cells, -Math.floorDiv(-minutes, CELL_MINUTES)));
+    }
+}
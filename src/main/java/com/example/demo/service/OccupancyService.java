@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BusyInterval;
+import com.example.demo.dto.CommuterSearchRequest;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.FreeWindowFinder.Interval;
+import com.example.demo.service.OccupancyIndex.SpotSchedule;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multi-spot, multi-window availability ("which of these spots are free every weekday 08:00-17:00
+ * next month") answered from an in-memory {@link OccupancyIndex} instead of one overlap query per
+ * spot and day.
+ * <p>
+ * The index covers today plus horizon-days. It is loaded at startup and rebuilt periodically,
+ * which also rolls it forward a day at a time. Between rebuilds each committed booking change
+ * re-reads the affected spot's bookings for the days it touches, and each spot change re-reads
+ * that spot's schedule. Spots or bookings changed while a rebuild is loading are re-read once the
+ * new index is in place.
+ */
+@Service
+public class OccupancyService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyService.class);
+
+    private final ParkingRepository parkingRepository;
+    private final BookingRepository bookingRepository;
+    private final int horizonDays;
+    private final int maxWindows;
+
+    private final IndexRebuilder rebuilder =
+            new IndexRebuilder(log, "occupancy_index", this::loadIndex, this::refreshSpotAndBookings);
+
+    private volatile OccupancyIndex index;
+
+    public OccupancyService(ParkingRepository parkingRepository, BookingRepository bookingRepository,
+                            @Value("${app.parking.occupancy.horizon-days:62}") int horizonDays,
+                            @Value("${app.parking.occupancy.max-windows:100}") int maxWindows) {
+        this.parkingRepository = parkingRepository;
+        this.bookingRepository = bookingRepository;
+        this.horizonDays = horizonDays;
+        this.maxWindows = maxWindows;
+        this.index = new OccupancyIndex(LocalDate.now(), horizonDays + 1);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuilder.rebuild();
+    }
+
+    public List<Long> freeSpots(CommuterSearchRequest req) {
+        if (!req.getStartTime().isBefore(req.getEndTime())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startTime must be before endTime");
+        }
+        if (req.getToDate().isBefore(req.getFromDate())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fromDate must not be after toDate");
+        }
+        // Before the day loop: a longer span cannot fit the index anyway, and would be looped over in full
+        if (ChronoUnit.DAYS.between(req.getFromDate(), req.getToDate()) > horizonDays) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "fromDate to toDate must span at most " + (horizonDays + 1) + " days");
+        }
+
+        List<Interval> windows = new ArrayList<>();
+        for (LocalDate day = req.getFromDate(); !day.isAfter(req.getToDate()); day = day.plusDays(1)) {
+            if (req.getDaysOfWeek().contains(day.getDayOfWeek())) {
+                windows.add(new Interval(day.atTime(req.getStartTime()), day.atTime(req.getEndTime())));
+            }
+        }
+        if (windows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No requested day falls between fromDate and toDate");
+        }
+        if (windows.size() > maxWindows) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxWindows + " days per search");
+        }
+
+        RoaringBitmap candidates = null;
+        if (req.getParkingIds() != null && !req.getParkingIds().isEmpty()) {
+            candidates = new RoaringBitmap();
+            for (Long id : req.getParkingIds()) {
+                if (id != null && id > 0 && id <= Integer.MAX_VALUE) {
+                    candidates.add(id.intValue());
+                }
+            }
+        }
+
+        List<Long> out = new ArrayList<>();
+        index.free(candidates, windows).forEach((int id) -> out.add((long) id));
+        return out;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChanged event) {
+        rebuilder.recordIfRebuilding(event.parkingId());
+        // Whole days, so a shortened or moved booking leaves no stale cells behind
+        rebuilder.update(event.parkingId(), id -> refreshBusy(id, event.start().toLocalDate().atStartOfDay(),
+                event.end().toLocalDate().plusDays(1).atStartOfDay()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        rebuilder.recordIfRebuilding(event.parkingId());
+        rebuilder.update(event.parkingId(), this::refreshSpot);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        rebuilder.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.parking.occupancy.rebuild-interval:PT1H}",
+            fixedDelayString = "${app.parking.occupancy.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuilder.rebuild();
+    }
+
+    private String loadIndex() {
+        OccupancyIndex fresh = new OccupancyIndex(LocalDate.now(), horizonDays + 1);
+        List<Parking> spots = parkingRepository.findActiveWithAvailability();
+        for (Parking p : spots) {
+            fresh.putSpot(Math.toIntExact(p.getId()), SpotSchedule.of(p));
+        }
+        int bookings = 0;
+        for (BusyInterval b : bookingRepository.findAllBusyIntervals(fresh.start(), fresh.end(), BookingStatus.BLOCKING)) {
+            fresh.addBusy(Math.toIntExact(b.getParkingId()), new Interval(b.getStart(), b.getEnd()));
+            bookings++;
+        }
+        index = fresh;
+        return "spots=" + spots.size() + " bookings=" + bookings;
+    }
+
+    private void refreshSpotAndBookings(Long parkingId) {
+        refreshSpot(parkingId);
+        OccupancyIndex current = index;
+        refreshBusy(parkingId, current.start(), current.end());
+    }
+
+    private void refreshSpot(Long parkingId) {
+        OccupancyIndex target = index;
+        Parking p = parkingRepository.findWithAvailabilityByIdIn(List.of(parkingId)).stream()
+                .filter(Parking::isActive).findFirst().orElse(null);
+        if (p == null) {
+            target.removeSpot(Math.toIntExact(parkingId));
+        } else {
+            target.putSpot(Math.toIntExact(parkingId), SpotSchedule.of(p));
+        }
+    }
+
+    private void refreshBusy(Long parkingId, LocalDateTime from, LocalDateTime to) {
+        OccupancyIndex target = index;
+        LocalDateTime start = from.isBefore(target.start()) ? target.start() : from;
+        LocalDateTime end = to.isAfter(target.end()) ? target.end() : to;
+        if (!start.isBefore(end)) {
+            return; // outside the indexed days
+        }
+        List<Interval> bookings = bookingRepository.findBusyIntervals(List.of(parkingId), start, end, BookingStatus.BLOCKING)
+                .stream().map(b -> new Interval(b.getStart(), b.getEnd())).toList();
+        target.replaceBusy(Math.toIntExact(parkingId), start, end, bookings);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ClusterResponse;
+import com.example.demo.dto.SpotLocation;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Serves zoomed-out map views from an in-memory {@link SpotClusterGrid}.
+ * <p>
+ * The grid is loaded at startup and kept current by the spot events ParkingService publishes
+ * after commit (one projection lookup per changed spot). A periodic rebuild from the database
+ * picks up anything written around the services; spots changed while a rebuild is loading are
+ * re-read once the new grid is in place.
+ */
+@Service
+public class ParkingClusterService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingClusterService.class);
+
+    private final ParkingRepository parkingRepository;
+    private final int minZoom;
+    private final int maxZoom;
+
+    private final IndexRebuilder rebuilder =
+            new IndexRebuilder(log, "parking_clusters", this::loadGrid, this::refreshSpot);
+
+    private volatile SpotClusterGrid grid;
+
+    public ParkingClusterService(ParkingRepository parkingRepository,
+                                 @Value("${app.parking.clusters.min-zoom:0}") int minZoom,
+                                 @Value("${app.parking.clusters.max-zoom:16}") int maxZoom) {
+        this.parkingRepository = parkingRepository;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.grid = new SpotClusterGrid(minZoom, maxZoom);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuilder.rebuild();
+    }
+
+    public List<ClusterResponse> clusters(int zoom, double minLat, double minLng, double maxLat, double maxLng) {
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bounding box min must not exceed max");
+        }
+        return grid.query(zoom, minLat, minLng, maxLat, maxLng);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        rebuilder.recordIfRebuilding(event.parkingId());
+        rebuilder.refresh(event.parkingId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        rebuilder.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.parking.clusters.rebuild-interval:PT1H}",
+            fixedDelayString = "${app.parking.clusters.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuilder.rebuild();
+    }
+
+    private String loadGrid() {
+        List<SpotLocation> spots = parkingRepository.findMapLocations();
+        SpotClusterGrid fresh = new SpotClusterGrid(minZoom, maxZoom);
+        spots.forEach(fresh::upsert);
+        grid = fresh;
+        return "spots=" + spots.size();
+    }
+
+    private void refreshSpot(Long parkingId) {
+        SpotClusterGrid target = grid;
+        parkingRepository.findMapLocation(parkingId)
+                .ifPresentOrElse(target::upsert, () -> target.remove(parkingId));
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateParkingRequest;
+import com.example.demo.dto.ParkingImportResponse;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.ParkingRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of parking spots from a streamed NDJSON or CSV body.
+ * <p>
+ * Rows are parsed and validated one at a time and written in batches, each batch in its own
+ * transaction. Only the current batch is held in memory, so the upload size is bounded by
+ * {@code app.parking.import.max-rows}, not by heap.
+ */
+@Service
+public class ParkingImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    private final ParkingService parkingService;
+    private final ParkingRepository parkingRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+
+    @Value("${app.parking.import.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.parking.import.max-rows:10000}")
+    private int maxRows = 10000;
+
+    @Value("${app.parking.import.max-reported-errors:500}")
+    private int maxReportedErrors = 500;
+
+    public ParkingImportService(ParkingService parkingService,
+                                ParkingRepository parkingRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher events) {
+        this.parkingService = parkingService;
+        this.parkingRepository = parkingRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.events = events;
+    }
+
+    public ParkingImportResponse importSpots(Long ownerId, InputStream body, Format format) throws IOException {
+        log.info("action=parking_import_service start ownerId={} format={}", ownerId, format);
+
+        ParkingImportResponse result = new ParkingImportResponse();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvHeader = null;
+            String line;
+            long lineNo = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvHeader == null) {
+                    csvHeader = parseCsvHeader(line);
+                    continue;
+                }
+                if (result.getTotalRows() >= maxRows) {
+                    reject(result, lineNo, "Row limit of " + maxRows + " reached; remaining rows were not imported");
+                    break;
+                }
+
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    CreateParkingRequest req = (format == Format.CSV)
+                            ? parseCsvRow(csvHeader, line)
+                            : objectMapper.readValue(line, CreateParkingRequest.class);
+                    validate(req);
+                    batch.add(new PendingRow(lineNo, req, parkingService.buildParking(ownerId, req)));
+                } catch (JsonProcessingException ex) {
+                    reject(result, lineNo, "Malformed JSON: " + ex.getOriginalMessage());
+                } catch (ResponseStatusException ex) {
+                    reject(result, lineNo, ex.getReason());
+                } catch (IllegalArgumentException ex) {
+                    reject(result, lineNo, ex.getMessage());
+                }
+
+                if (batch.size() >= batchSize) {
+                    writeBatch(ownerId, batch, result);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            writeBatch(ownerId, batch, result);
+        }
+        if (result.getImported() > 0) {
+            events.publishEvent(new SearchInvalidationEvents.AllSpotsChanged());
+        }
+
+        log.info("action=parking_import_service success ownerId={} rows={} imported={} failed={}",
+                ownerId, result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void writeBatch(Long ownerId, List<PendingRow> batch, ParkingImportResponse result) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    persist(batch.stream().map(PendingRow::parking).toList()));
+            result.setImported(result.getImported() + batch.size());
+            return;
+        } catch (RuntimeException ex) {
+            log.warn("action=parking_import_batch fail size={} reason={} fallback=row_by_row",
+                    batch.size(), ex.getClass().getSimpleName());
+        }
+
+        // The batch was rolled back; retry row by row to pin down which rows the DB rejects.
+        // Entities from the failed attempt may carry stale ids, so rebuild them from the request.
+        for (PendingRow row : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        persist(List.of(parkingService.buildParking(ownerId, row.request()))));
+                result.setImported(result.getImported() + 1);
+            } catch (RuntimeException ex) {
+                reject(result, row.line(), "Could not be saved: " + ex.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private void persist(List<Parking> spots) {
+        parkingRepository.saveAll(spots);
+        // Keep the persistence context from growing across batches (it is request-scoped under OSIV)
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void validate(CreateParkingRequest req) {
+        var violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private void reject(ParkingImportResponse result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ParkingImportResponse.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    // ============================
+    // CSV
+    // ============================
+    // Columns (by header name): location, lat, lng, pricePerHour, covered, description, availabilityType,
+    // specificAvailability ("2026-01-01T08:00/2026-01-01T17:00;...") and
+    // recurringSchedule ("1@08:00-17:00;2@08:00-17:00", 0 = Sunday).
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!header.containsKey("location") || !header.containsKey("priceperhour")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must contain at least location and pricePerHour");
+        }
+        return header;
+    }
+
+    private CreateParkingRequest parseCsvRow(Map<String, Integer> header, String line) {
+        List<String> cells = splitCsv(line);
+        CreateParkingRequest req = new CreateParkingRequest();
+
+        req.setLocation(cell(header, cells, "location"));
+        req.setLat(parseDouble(cell(header, cells, "lat"), "lat"));
+        req.setLng(parseDouble(cell(header, cells, "lng"), "lng"));
+
+        Double price = parseDouble(cell(header, cells, "priceperhour"), "pricePerHour");
+        req.setPricePerHour(price == null ? 0 : price);
+        req.setCovered(Boolean.parseBoolean(cell(header, cells, "covered")));
+        req.setDescription(cell(header, cells, "description"));
+        req.setAvailabilityType(cell(header, cells, "availabilitytype"));
+
+        String specific = cell(header, cells, "specificavailability");
+        if (specific != null) {
+            req.setSpecificAvailability(parseSpecificSlots(specific));
+        }
+        String recurring = cell(header, cells, "recurringschedule");
+        if (recurring != null) {
+            req.setRecurringSchedule(parseRecurringSlots(recurring));
+        }
+        return req;
+    }
+
+    private String cell(Map<String, Integer> header, List<String> cells, String name) {
+        Integer idx = header.get(name);
+        if (idx == null || idx >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(idx).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Double parseDouble(String raw, String field) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(raw);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+    }
+
+    private List<CreateParkingRequest.SpecificSlotDto> parseSpecificSlots(String raw) {
+        List<CreateParkingRequest.SpecificSlotDto> slots = new ArrayList<>();
+        for (String part : raw.split(";")) {
+            String[] range = part.trim().split("/");
+            if (range.length != 2) {
+                throw new IllegalArgumentException("specificAvailability must look like start/end;start/end");
+            }
+            try {
+                CreateParkingRequest.SpecificSlotDto slot = new CreateParkingRequest.SpecificSlotDto();
+                slot.setStart(LocalDateTime.parse(range[0].trim()));
+                slot.setEnd(LocalDateTime.parse(range[1].trim()));
+                slots.add(slot);
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid date-time in specificAvailability: " + part.trim());
+            }
+        }
+        return slots;
+    }
+
+    private List<CreateParkingRequest.RecurringScheduleDto> parseRecurringSlots(String raw) {
+        List<CreateParkingRequest.RecurringScheduleDto> slots = new ArrayList<>();
+        for (String part : raw.split(";")) {
+            String[] dayAndRange = part.trim().split("@");
+            String[] range = dayAndRange.length == 2 ? dayAndRange[1].split("-") : new String[0];
+            if (range.length != 2) {
+                throw new IllegalArgumentException("recurringSchedule must look like day@HH:mm-HH:mm;...");
+            }
+            try {
+                CreateParkingRequest.RecurringScheduleDto slot = new CreateParkingRequest.RecurringScheduleDto();
+                slot.setDayOfWeek(Integer.valueOf(dayAndRange[0].trim()));
+                slot.setStart(LocalTime.parse(range[0].trim()));
+                slot.setEnd(LocalTime.parse(range[1].trim()));
+                slots.add(slot);
+            } catch (NumberFormatException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid entry in recurringSchedule: " + part.trim());
+            }
+        }
+        return slots;
+    }
+
+    // Minimal RFC 4180 splitting: quoted cells may contain commas and doubled quotes, not line breaks.
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted cell");
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private record PendingRow(long line, CreateParkingRequest request, Parking parking) {}
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ParkingResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Orders search results by distance from a point, price, rating or a weighted blend of the three,
+ * and keeps only the best {@code limit}. Selection uses a heap bounded at {@code limit}, so ranking
+ * N matches costs O(N log K) and never sorts or copies the whole result set. Price and rating
+ * searches are already sorted and cut by the database (ParkingService.searchTop), so for those
+ * only distance and blend rank the full match list here.
+ * <p>
+ * Blend scores are lower-is-better sums of normalized terms: distance / distance-scale,
+ * price / price-scale and (5 - rating) / 5, each multiplied by its weight.
+ */
+@Component
+public class ParkingRanker {
+
+    public enum SortBy {
+        DISTANCE, PRICE, RATING, BLEND;
+
+        public static SortBy parse(String raw) {
+            try {
+                return SortBy.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be distance, price, rating or blend");
+            }
+        }
+
+        boolean needsOrigin() {
+            return this == DISTANCE || this == BLEND;
+        }
+
+        /** Orders that do not depend on the caller's position, so the database can sort and cut them. */
+        public boolean sortableInDatabase() {
+            return this == PRICE || this == RATING;
+        }
+    }
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double distanceWeight;
+    private final double priceWeight;
+    private final double ratingWeight;
+    private final double distanceScaleKm;
+    private final double priceScale;
+    private final int maxLimit;
+
+    public ParkingRanker(@Value("${app.parking.ranking.weights:distance:0.5;price:0.3;rating:0.2}") String weights,
+                         @Value("${app.parking.ranking.distance-scale-km:5}") double distanceScaleKm,
+                         @Value("${app.parking.ranking.price-scale:20}") double priceScale,
+                         @Value("${app.parking.ranking.max-limit:200}") int maxLimit) {
+        double distance = 0, price = 0, rating = 0;
+        for (String part : weights.split(";")) {
+            String spec = part.trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            int sep = spec.indexOf(':');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Invalid ranking weight: " + spec);
+            }
+            double w = Double.parseDouble(spec.substring(sep + 1).trim());
+            switch (spec.substring(0, sep).trim().toLowerCase(Locale.ROOT)) {
+                case "distance" -> distance = w;
+                case "price" -> price = w;
+                case "rating" -> rating = w;
+                default -> throw new IllegalArgumentException("Unknown ranking weight: " + spec);
+            }
+        }
+        this.distanceWeight = distance;
+        this.priceWeight = price;
+        this.ratingWeight = rating;
+        this.distanceScaleKm = distanceScaleKm;
+        this.priceScale = priceScale;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param sort  null keeps the candidates' order
+     * @param limit null means every match when unsorted (as before ranking existed), max-limit when sorted
+     */
+    public List<ParkingResponse> rank(List<ParkingResponse> candidates, SortBy sort,
+                                      Double lat, Double lng, Integer limit) {
+        int sortedLimit = checkRequest(sort, lat, lng, limit);
+        if (sort == null) {
+            return limit == null || candidates.size() <= limit ? candidates : candidates.subList(0, limit);
+        }
+
+        ToDoubleFunction<ParkingResponse> score = switch (sort) {
+            case DISTANCE -> p -> distanceKm(p, lat, lng);
+            case PRICE -> ParkingResponse::getPricePerHour;
+            case RATING -> p -> -p.getAverageRating();
+            case BLEND -> p -> blendScore(p, lat, lng);
+        };
+        return topK(candidates, score, sortedLimit);
+    }
+
+    /**
+     * Rejects bad ranking parameters (so callers can check before loading anything) and returns how
+     * many results a sorted search yields: the limit, or max-limit when none is given.
+     */
+    public int checkRequest(SortBy sort, Double lat, Double lng, Integer limit) {
+        if (limit != null && (limit < 1 || limit > maxLimit)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+        if (sort != null && sort.needsOrigin() && (lat == null || lng == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat and lng are required to sort by " +
+                    sort.name().toLowerCase(Locale.ROOT));
+        }
+        return limit == null ? maxLimit : limit;
+    }
+
+    double blendScore(ParkingResponse p, double lat, double lng) {
+        double score = priceWeight * p.getPricePerHour() / priceScale
+                + ratingWeight * (5.0 - p.getAverageRating()) / 5.0;
+        // Skipped at weight 0 so a spot without coordinates does not score 0 * infinity
+        return distanceWeight == 0 ? score : score + distanceWeight * distanceKm(p, lat, lng) / distanceScaleKm;
+    }
+
+    // Lowest scores first; ties go to the lower id so pages are stable
+    static List<ParkingResponse> topK(List<ParkingResponse> candidates, ToDoubleFunction<ParkingResponse> score, int k) {
+        Comparator<Scored> order = Comparator.comparingDouble(Scored::score)
+                .thenComparing(s -> s.item().getId(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+        // Max-heap of the best k so far: the root is the worst kept item and the first to go
+        PriorityQueue<Scored> heap = new PriorityQueue<>(Math.min(k, Math.max(1, candidates.size())), order.reversed());
+        for (ParkingResponse p : candidates) {
+            Scored s = new Scored(p, score.applyAsDouble(p));
+            if (heap.size() < k) {
+                heap.add(s);
+            } else if (order.compare(s, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(s);
+            }
+        }
+
+        List<Scored> best = new ArrayList<>(heap);
+        best.sort(order);
+        return best.stream().map(Scored::item).toList();
+    }
+
+    // Great-circle distance; spots without coordinates sort last
+    static double distanceKm(ParkingResponse p, double lat, double lng) {
+        if (p.getLat() == null || p.getLng() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distanceKm(lat, lng, p.getLat(), p.getLng());
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private record Scored(ParkingResponse item, double score) {}
+}
@@ -0,0 +1,234 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DataVersion;
+import com.example.demo.dto.ParkingResponse;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches parking search results per normalized query (filters plus availability window).
+ * <p>
+ * Entries are dropped after a TTL, least recently used first when full, and, more importantly, as
+ * soon as a committed change could alter them: a booking that starts or stops blocking a window only
+ * evicts windowed queries that overlap it and whose filters match the spot; a spot edit evicts the
+ * queries its old or new price/covered values match. Concurrent misses on the same query share one
+ * load. A load that overlaps any invalidation is returned but not stored, since it may have read
+ * the old data.
+ * <p>
+ * Each entry carries the data version its loader read before the matches, and responses take their
+ * ETag from it: a cached body is only ever sent under its own validator, never under a newer one.
+ */
+@Component
+public class ParkingSearchCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingSearchCache.class);
+
+    /** Filters and window; {@code top}/{@code topLimit} are set for database-sorted (price/rating) pages. */
+    public record SearchKey(Boolean covered, Double minPrice, Double maxPrice,
+                            LocalDateTime from, LocalDateTime to,
+                            ParkingRanker.SortBy top, Integer topLimit) {
+
+        // A half-open window is ignored by the search, so it shares the window-less entry
+        public static SearchKey of(Boolean covered, Double minPrice, Double maxPrice,
+                                   LocalDateTime from, LocalDateTime to) {
+            boolean window = from != null && to != null;
+            return new SearchKey(covered, minPrice, maxPrice, window ? from : null, window ? to : null, null, null);
+        }
+
+        // Invalidation only looks at filters and window: any change that can alter the matches can alter a top page
+        public SearchKey top(ParkingRanker.SortBy sort, int limit) {
+            return new SearchKey(covered, minPrice, maxPrice, from, to, sort, limit);
+        }
+
+        boolean matches(SpotTraits spot) {
+            return (covered == null || covered == spot.covered())
+                    && (minPrice == null || spot.pricePerHour() >= minPrice)
+                    && (maxPrice == null || spot.pricePerHour() <= maxPrice);
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return from != null && start.isBefore(to) && end.isAfter(from);
+        }
+    }
+
+    /** A search's matches plus the data version read before loading them (never newer than the matches). */
+    public record Results(DataVersion version, List<ParkingResponse> matches) {}
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    // Access-ordered, so the head is the least recently used entry
+    private final LinkedHashMap<SearchKey, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<SearchKey, CompletableFuture<Results>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter invalidated;
+
+    @Autowired
+    public ParkingSearchCache(MeterRegistry meterRegistry,
+                              @Value("${app.parking.search-cache.enabled:true}") boolean enabled,
+                              @Value("${app.parking.search-cache.ttl:PT30S}") Duration ttl,
+                              @Value("${app.parking.search-cache.max-entries:1000}") int maxEntries) {
+        this(meterRegistry, enabled, ttl, maxEntries, System::nanoTime);
+    }
+
+    ParkingSearchCache(MeterRegistry meterRegistry, boolean enabled, Duration ttl, int maxEntries, LongSupplier clock) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.coalesced = lookups(meterRegistry, "coalesced");
+        this.invalidated = Counter.builder("easypark.search.cache.invalidated")
+                .description("Cached search results dropped because a booking or spot changed")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("easypark.search.cache")
+                .description("Parking search cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public Results get(SearchKey key, Supplier<Results> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long now = clock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - now > 0) {
+                    hits.increment();
+                    return entry.results;
+                }
+                entries.remove(key);
+            }
+        }
+
+        CompletableFuture<Results> mine = new CompletableFuture<>();
+        CompletableFuture<Results> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        long startGeneration = generation.get();
+        try {
+            Results loaded = loader.get();
+            Results results = new Results(loaded.version(), List.copyOf(loaded.matches()));
+            store(key, results, startGeneration);
+            mine.complete(results);
+            return results;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChanged event) {
+        invalidate("booking", key -> key.matches(event.spot()) && key.overlaps(event.start(), event.end()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        invalidate("spot", key -> (event.before() != null && key.matches(event.before()))
+                || (event.after() != null && key.matches(event.after())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        invalidate("all", key -> true);
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void store(SearchKey key, Results results, long startGeneration) {
+        synchronized (entries) {
+            if (generation.get() != startGeneration) {
+                return;
+            }
+            if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            entries.put(key, new Entry(results, clock.getAsLong() + ttlNanos));
+        }
+    }
+
+    private void invalidate(String cause, Predicate<SearchKey> affected) {
+        int removed = 0;
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<SearchKey> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (affected.test(it.next())) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        // Later identical searches must not join a load that may have read the old data
+        inFlight.keySet().removeIf(affected);
+
+        if (removed > 0) {
+            invalidated.increment(removed);
+            log.debug("action=search_cache_invalidate cause={} removed={}", cause, removed);
+        }
+    }
+
+    private static Results await(CompletableFuture<Results> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record Entry(Results results, long expiresAt) {}
+}
@@ -2,13 +2,21 @@ package com.example.demo.service;
 
 import com.example.demo.dto.BookedIntervalResponse;
 import com.example.demo.dto.CreateParkingRequest;
+import com.example.demo.dto.DataVersion;
 import com.example.demo.dto.UpdateParkingRequest;
 import com.example.demo.model.*;
 import com.example.demo.repository.BookingRepository;
 import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -16,7 +24,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 import com.example.demo.repository.ParkingRatingRepository;
 
@@ -28,19 +35,30 @@ public class ParkingService {
     private final ParkingRepository parkingRepository;
     private final BookingRepository bookingRepository;
     private final ParkingRatingRepository parkingRatingRepository;
-    private static final Collection<BookingStatus> BUSY_STATUSES =
-            List.of(BookingStatus.PENDING, BookingStatus.APPROVED);
+    private final ApplicationEventPublisher events;
 
     public ParkingService(ParkingRepository parkingRepository,
                           BookingRepository bookingRepository,
-                          ParkingRatingRepository parkingRatingRepository) {
+                          ParkingRatingRepository parkingRatingRepository,
+                          ApplicationEventPublisher events) {
         this.parkingRepository = parkingRepository;
         this.bookingRepository = bookingRepository;
         this.parkingRatingRepository = parkingRatingRepository;
+        this.events = events;
     }
 
     @Transactional
     public Parking create(Long ownerId, CreateParkingRequest req) {
+        Parking p = buildParking(ownerId, req);
+
+        Parking saved = parkingRepository.save(p);
+        events.publishEvent(new SpotChanged(saved.getId(), null, SpotTraits.of(saved)));
+        log.info("action=parking_create_service success ownerId={} parkingId={}", ownerId, saved.getId());
+        return saved;
+    }
+
+    // Builds an unsaved spot from the request (shared by create and bulk import)
+    Parking buildParking(Long ownerId, CreateParkingRequest req) {
         Parking p = new Parking();
         p.setOwnerId(ownerId);
         p.setLocation(req.getLocation());
@@ -54,10 +72,7 @@ public class ParkingService {
         p.setDescription(req.getDescription());
 
         handleAvailability(p, req.getAvailabilityType(), req.getSpecificAvailability(), req.getRecurringSchedule());
-
-        Parking saved = parkingRepository.save(p);
-        log.info("action=parking_create_service success ownerId={} parkingId={}", ownerId, saved.getId());
-        return saved;
+        return p;
     }
 
     @Transactional
@@ -70,6 +85,7 @@ public class ParkingService {
         if (!p.getOwnerId().equals(ownerId)) {
             throw new AccessDeniedException("You are not the owner of this parking spot");
         }
+        SpotTraits before = SpotTraits.of(p);
 
         // Update basic fields
         p.setLocation(req.getLocation());
@@ -90,9 +106,12 @@ public class ParkingService {
                     req.getAvailabilityType(),
                     req.getSpecificAvailability(),
                     req.getRecurringSchedule());
+            // Child-only changes do not dirty the spot itself; bump updatedAt so ETags change
+            p.preUpdate();
         }
 
         Parking saved = parkingRepository.save(p);
+        events.publishEvent(new SpotChanged(saved.getId(), before, SpotTraits.of(saved)));
         log.info("action=parking_update_service success ownerId={} parkingId={}", ownerId, saved.getId());
         return saved;
     }
@@ -135,24 +154,50 @@ public class ParkingService {
             throw new AccessDeniedException("You are not the owner");
         }
         parkingRepository.delete(p);
+        events.publishEvent(new SpotChanged(p.getId(), SpotTraits.of(p), null));
     }
 
     public List<Parking> listMine(Long ownerId) {
         return parkingRepository.findByOwnerId(ownerId);
     }
 
+    // ============================
+    // Versions for conditional GETs (ETag / If-None-Match)
+    // ============================
+    // Read-only transactions, so these lookups can be served by the replica like the reads they guard
+
+    @Transactional(readOnly = true)
+    public DataVersion mineVersion(Long ownerId) {
+        return parkingRepository.versionForOwner(ownerId);
+    }
+
+    // Search results depend on every spot, and on bookings only when a window is given
+    @Transactional(readOnly = true)
+    public DataVersion searchVersion(boolean withWindow) {
+        DataVersion spots = parkingRepository.versionOfAll();
+        return withWindow
+                ? spots.and(new DataVersion(0L, bookingRepository.findLastUpdatedAt()))
+                : spots;
+    }
+
+    @Transactional(readOnly = true)
+    public DataVersion busyVersion(Long parkingId) {
+        return bookingRepository.versionForParking(parkingId);
+    }
+
+    @Transactional(readOnly = true)
+    @Timed(value = "easypark.parking.search", description = "Parking search with optional availability window")
     public List<Parking> search(Boolean covered, Double minPrice, Double maxPrice,
                                 LocalDateTime from, LocalDateTime to) {
 
         // base filters + availability by bookings
         if (from != null && to != null) {
-            if (!from.isBefore(to)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
-            }
+            checkWindow(from, to);
             return parkingRepository.searchAvailable(
                     covered, minPrice, maxPrice,
                     from, to,
-                    BUSY_STATUSES
+                    BookingStatus.BLOCKING,
+                    Pageable.unpaged()
             );
         }
 
@@ -165,10 +210,42 @@ public class ParkingService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public List<Parking> search(Boolean covered, Double minPrice, Double maxPrice) {
         return search(covered, minPrice, maxPrice, null, null);
     }
 
+    /**
+     * The best {@code limit} matches by price (cheapest first) or rating (best first), sorted and cut
+     * by the database. Ties go to the lower id, as in {@link ParkingRanker}, so the result equals
+     * ranking every match in memory while only {@code limit} rows are loaded and mapped.
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "easypark.parking.search.top", description = "Price/rating-ordered parking search with a limit")
+    public List<Parking> searchTop(Boolean covered, Double minPrice, Double maxPrice,
+                                   LocalDateTime from, LocalDateTime to,
+                                   ParkingRanker.SortBy sort, int limit) {
+        Sort order = switch (sort) {
+            case PRICE -> Sort.by("pricePerHour").and(Sort.by("id"));
+            case RATING -> Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by("id"));
+            default -> throw new IllegalArgumentException("Only price and rating orders are sorted in the database");
+        };
+        Pageable page = PageRequest.of(0, limit, order);
+
+        if (from != null && to != null) {
+            checkWindow(from, to);
+            return parkingRepository.searchAvailable(covered, minPrice, maxPrice, from, to, BookingStatus.BLOCKING, page);
+        }
+        return parkingRepository.searchActive(covered, minPrice, maxPrice, page);
+    }
+
+    private static void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<BookedIntervalResponse> getBusyIntervals(Long parkingId, LocalDateTime from, LocalDateTime to) {
         Parking p = parkingRepository.findById(parkingId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Parking spot not found"));
@@ -181,7 +258,7 @@ public class ParkingService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
         }
 
-        List<Booking> overlaps = bookingRepository.findOverlaps(parkingId, effectiveFrom, effectiveTo, BUSY_STATUSES);
+        List<Booking> overlaps = bookingRepository.findOverlaps(parkingId, effectiveFrom, effectiveTo, BookingStatus.BLOCKING);
         return overlaps.stream().map(BookedIntervalResponse::from).toList();
     }
 
@@ -232,6 +309,8 @@ public class ParkingService {
         p.setAverageRating(average);
 
         Parking saved = parkingRepository.save(p);
+        // Search results carry the rating
+        events.publishEvent(new SpotChanged(saved.getId(), SpotTraits.of(saved), SpotTraits.of(saved)));
 
         log.info("action=parking_rate success userId={} parkingId={} rating={} updated={} newAverage={} ratingCount={}",
                 userId, parkingId, rating, isUpdate, saved.getAverageRating(), saved.getRatingCount());
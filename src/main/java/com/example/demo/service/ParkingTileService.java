@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SpotLocation;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spots per web-map tile (XYZ / Web Mercator, as used by Leaflet and Google Maps).
+ * <p>
+ * Tiles are cached by z/x/y together with a version (a hash of their content) that the controller
+ * sends as the ETag. When a spot is created, moved, repriced or removed, only the tiles that held
+ * its old or new position, one per zoom level, are dropped; every other cached tile, and every
+ * copy held by browsers or an HTTP cache, stays valid. Below min-zoom a tile covers too much of
+ * the map; clients use the clusters endpoint there instead.
+ */
+@Service
+public class ParkingTileService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingTileService.class);
+
+    // Web Mercator stops here; positions beyond it land in the top/bottom row of tiles
+    private static final double MAX_LAT = 85.0511287798;
+
+    public record TileKey(int z, int x, int y) {}
+
+    public record Tile(List<SpotLocation> spots, String etag) {}
+
+    private final ParkingRepository parkingRepository;
+    private final int minZoom;
+    private final int maxZoom;
+    private final int maxEntries;
+    private final Duration maxAge;
+
+    // Access-ordered, so the head is the least recently used tile
+    private final LinkedHashMap<TileKey, Tile> tiles = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ParkingTileService(ParkingRepository parkingRepository, MeterRegistry meterRegistry,
+                              @Value("${app.parking.tiles.min-zoom:10}") int minZoom,
+                              @Value("${app.parking.tiles.max-zoom:20}") int maxZoom,
+                              @Value("${app.parking.tiles.max-entries:5000}") int maxEntries,
+                              @Value("${app.parking.tiles.max-age:PT30S}") Duration maxAge) {
+        this.parkingRepository = parkingRepository;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("easypark.map.tiles")
+                .description("Map tile cache lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    // How long clients and HTTP caches may reuse a tile before revalidating it with its ETag
+    public Duration maxAge() {
+        return maxAge;
+    }
+
+    public Tile tile(int z, int x, int y) {
+        if (z < minZoom || z > maxZoom) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "zoom must be between " + minZoom + " and " + maxZoom + " (use clusters below that)");
+        }
+        int n = 1 << z;
+        if (x < 0 || x >= n || y < 0 || y >= n) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tile x and y must be between 0 and " + (n - 1));
+        }
+
+        TileKey key = new TileKey(z, x, y);
+        synchronized (tiles) {
+            Tile cached = tiles.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        long startGeneration = generation.get();
+        Tile loaded = load(key);
+        synchronized (tiles) {
+            // A spot changed while loading: serve what was read but do not keep it
+            if (generation.get() == startGeneration) {
+                if (tiles.size() >= maxEntries) {
+                    Iterator<Tile> eldest = tiles.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                tiles.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        int removed = 0;
+        synchronized (tiles) {
+            generation.incrementAndGet();
+            removed += evictTilesAt(event.before());
+            removed += evictTilesAt(event.after());
+        }
+        if (removed > 0) {
+            log.debug("action=map_tiles_invalidate parkingId={} removed={}", event.parkingId(), removed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        synchronized (tiles) {
+            generation.incrementAndGet();
+            tiles.clear();
+        }
+    }
+
+    int size() {
+        synchronized (tiles) {
+            return tiles.size();
+        }
+    }
+
+    // Caller holds the tiles lock
+    private int evictTilesAt(SpotTraits spot) {
+        if (spot == null || spot.lat() == null || spot.lng() == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (int z = minZoom; z <= maxZoom; z++) {
+            if (tiles.remove(new TileKey(z, tileX(z, spot.lng()), tileY(z, spot.lat()))) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private Tile load(TileKey key) {
+        int n = 1 << key.z();
+        double west = key.x() * 360.0 / n - 180;
+        double east = (key.x() + 1) * 360.0 / n - 180;
+        double north = key.y() == 0 ? 90 : tileLat(key.y(), n);
+        double south = key.y() == n - 1 ? -90 : tileLat(key.y() + 1, n);
+
+        // Bounds are inclusive, then each spot is kept only in the tile its own position maps to,
+        // so a spot on an edge belongs to exactly the tile that is evicted when it changes
+        List<SpotLocation> spots = parkingRepository.findMapLocationsWithin(south, north, west, east).stream()
+                .filter(s -> tileX(key.z(), s.getLng()) == key.x() && tileY(key.z(), s.getLat()) == key.y())
+                .toList();
+        return new Tile(spots, version(spots));
+    }
+
+    private static String version(List<SpotLocation> spots) {
+        StringBuilder content = new StringBuilder();
+        for (SpotLocation s : spots) {
+            content.append(s.getParkingId()).append(',').append(s.getLat()).append(',')
+                    .append(s.getLng()).append(',').append(s.getPricePerHour()).append(';');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static int tileX(int z, double lng) {
+        int n = 1 << z;
+        int x = (int) Math.floor((lng + 180) / 360 * n);
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    static int tileY(int z, double lat) {
+        int n = 1 << z;
+        double rad = Math.toRadians(Math.max(-MAX_LAT, Math.min(MAX_LAT, lat)));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    // Latitude of the top edge of tile row y
+    private static double tileLat(int y, int n) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / n))));
+    }
+}
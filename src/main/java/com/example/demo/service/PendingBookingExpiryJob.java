@@ -0,0 +1,168 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PendingBookingDeadline;
+import com.example.demo.model.Booking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Expires PENDING bookings the owner has not answered within the approval window, so they stop
+ * blocking the slot. A booking's deadline is createdAt + approval-window, or its start time if
+ * that comes first.
+ * <p>
+ * Deadlines live in an in-memory {@link HashedTimingWheel}: new bookings are added after commit,
+ * and the wheel is reloaded from the PENDING rows at startup and periodically (which also picks up
+ * bookings created by other instances). Each tick only touches the bookings that came due and
+ * expires them in batches with a conditional UPDATE, so one the owner approved or rejected in the
+ * meantime is left alone. Expired bookings publish {@link BookingChanged} like any other booking
+ * that stops blocking its slot.
+ */
+@Service
+public class PendingBookingExpiryJob implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingBookingExpiryJob.class);
+
+    /** Published by BookingService when a PENDING booking is created. */
+    public record PendingBookingCreated(Long bookingId, LocalDateTime createdAt, LocalDateTime startTime) {}
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final Duration approvalWindow;
+    private final long tickSeconds;
+    private final int batchSize;
+    private final HashedTimingWheel wheel;
+    private final Counter expired;
+
+    public PendingBookingExpiryJob(BookingRepository bookingRepository,
+                                   ApplicationEventPublisher events,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.bookings.pending-expiry.enabled:true}") boolean enabled,
+                                   @Value("${app.bookings.pending-expiry.approval-window:PT24H}") Duration approvalWindow,
+                                   @Value("${app.bookings.pending-expiry.tick:PT1M}") Duration tick,
+                                   @Value("${app.bookings.pending-expiry.wheel-size:512}") int wheelSize,
+                                   @Value("${app.bookings.pending-expiry.batch-size:200}") int batchSize) {
+        if (tick.getSeconds() < 1 || wheelSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Pending expiry tick must be at least 1s, wheel-size and batch-size at least 1");
+        }
+        this.bookingRepository = bookingRepository;
+        this.events = events;
+        this.enabled = enabled;
+        this.approvalWindow = approvalWindow;
+        this.tickSeconds = tick.getSeconds();
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel(wheelSize, tickOf(LocalDateTime.now()));
+        this.expired = Counter.builder("easypark.bookings.expired")
+                .description("PENDING bookings expired because the owner did not respond in time")
+                .register(meterRegistry);
+        Gauge.builder("easypark.bookings.pending.scheduled", wheel, HashedTimingWheel::size)
+                .description("PENDING bookings waiting on the expiry wheel")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPendingBookingCreated(PendingBookingCreated event) {
+        if (enabled) {
+            LocalDateTime createdAt = event.createdAt() != null ? event.createdAt() : LocalDateTime.now();
+            wheel.schedule(event.bookingId(), deadlineTick(createdAt, event.startTime()));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.bookings.pending-expiry.reload-interval:PT1H}",
+            fixedDelayString = "${app.bookings.pending-expiry.reload-interval:PT1H}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            List<PendingBookingDeadline> pending = bookingRepository.findPendingDeadlines();
+            for (PendingBookingDeadline p : pending) {
+                wheel.schedule(p.getBookingId(), deadlineTick(p.getCreatedAt(), p.getStartTime()));
+            }
+            log.info("action=booking_expiry_reload success pending={} tookMs={}",
+                    pending.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("action=booking_expiry_reload fail reason={}", ex.getClass().getSimpleName());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.bookings.pending-expiry.tick:PT1M}")
+    public void tick() {
+        if (enabled) {
+            expireDue(LocalDateTime.now());
+        }
+    }
+
+    int expireDue(LocalDateTime now) {
+        List<Long> due = wheel.advance(tickOf(now));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        int count = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                // Loaded first for the events; ids no longer PENDING drop out here and in the UPDATE
+                List<Booking> bookings = bookingRepository.findPendingByIdIn(batch);
+                if (bookings.isEmpty()) {
+                    continue;
+                }
+                count += bookingRepository.expirePending(bookings.stream().map(Booking::getId).toList(), now);
+                for (Booking b : bookings) {
+                    events.publishEvent(new BookingChanged(b.getParking().getId(), SpotTraits.of(b.getParking()),
+                            b.getStartTime(), b.getEndTime()));
+                }
+            } catch (RuntimeException ex) {
+                // Still PENDING in the database, so the next reload schedules them again
+                log.warn("action=booking_expiry fail bookings={} reason={}", batch.size(), ex.getClass().getSimpleName());
+            }
+        }
+
+        expired.increment(count);
+        if (count > 0) {
+            log.info("action=booking_expiry success expired={} due={} tookMs={}",
+                    count, due.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+        return count;
+    }
+
+    private long deadlineTick(LocalDateTime createdAt, LocalDateTime startTime) {
+        LocalDateTime deadline = createdAt.plus(approvalWindow);
+        if (startTime != null && startTime.isBefore(deadline)) {
+            deadline = startTime;
+        }
+        // Rounded up, so a booking never expires before its deadline
+        return Math.floorDiv(deadline.toEpochSecond(ZoneOffset.UTC) + tickSeconds - 1, tickSeconds);
+    }
+
+    private long tickOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), tickSeconds);
+    }
+}
@@ -50,6 +50,8 @@ public class RatingService {
         rating.setDriverId(booking.getDriver().getId());
         rating.setScore(score);
         driverRatingRepository.save(rating);
+        // ratedByOwner is derived from driver_ratings; bump the booking so the owner's change feed picks it up
+        booking.preUpdate();
 
         User driver = booking.getDriver();
         double currentAverage = driver.getAverageRating();
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.model.RefreshToken;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.security.TokenHashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Long-lived, rotating refresh tokens. Each refresh consumes the presented token and returns a new
+ * one from the same family; presenting an already-consumed token means it was copied, so the whole
+ * family is revoked and the client must log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public record Rotation(User user, String refreshToken) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.security.refresh-token.ttl:P30D}")
+    private Duration ttl = Duration.ofDays(30);
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    // Starts a new family (one per login)
+    @Transactional
+    public String issue(User user) {
+        String raw = TokenHashing.newToken();
+        String familyId = UUID.randomUUID().toString();
+        refreshTokenRepository.save(new RefreshToken(user, TokenHashing.sha256(raw), familyId, LocalDateTime.now().plus(ttl)));
+        log.debug("action=refresh_token_issue success userId={}", user.getId());
+        return raw;
+    }
+
+    // Reuse detection must stick even though the request fails
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(TokenHashing.sha256(rawToken))
+                .orElseThrow(() -> {
+                    log.warn("action=refresh_token_rotate fail reason=UNKNOWN_TOKEN");
+                    return invalid();
+                });
+
+        User user = current.getUser();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.getRevokedAt() != null || refreshTokenRepository.markRevoked(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("action=refresh_token_rotate fail reason=REUSE_DETECTED userId={} revokedInFamily={}",
+                    user.getId(), revoked);
+            throw invalid();
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            log.info("action=refresh_token_rotate fail reason=EXPIRED userId={}", user.getId());
+            throw invalid();
+        }
+
+        String next = TokenHashing.newToken();
+        refreshTokenRepository.save(new RefreshToken(user, TokenHashing.sha256(next), current.getFamilyId(), now.plus(ttl)));
+
+        log.debug("action=refresh_token_rotate success userId={}", user.getId());
+        return new Rotation(user, next);
+    }
+
+    // Logout: ends this login's family; unknown tokens are ignored so logout is idempotent
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(TokenHashing.sha256(rawToken)).ifPresent(token -> {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+            log.info("action=refresh_token_revoke success userId={}", token.getUser().getId());
+        });
+    }
+
+    // Password change/reset: signs out every device
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        log.info("action=refresh_token_revoke_all success userId={} revoked={}", userId, revoked);
+    }
+
+    private ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token");
+    }
+}
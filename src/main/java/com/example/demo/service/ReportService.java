@@ -1,11 +1,13 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.BookingResponse;
+import com.example.demo.dto.DataVersion;
 import com.example.demo.dto.OwnerDashboardResponse;
 import com.example.demo.dto.DriverReportResponse;
 import com.example.demo.model.Booking;
 import com.example.demo.repository.BookingRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +22,18 @@ public class ReportService {
         this.bookingRepository = bookingRepository;
     }
 
+    // Reports are built from the same rows as the booking lists, so they share their versions
+    @Transactional(readOnly = true)
+    public DataVersion ownerDashboardVersion(Long ownerId) {
+        return bookingRepository.versionForOwner(ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    public DataVersion driverReportVersion(Long driverId) {
+        return bookingRepository.versionForDriver(driverId);
+    }
+
+    @Transactional(readOnly = true)
     public OwnerDashboardResponse getOwnerDashboard(Long ownerId) {
 
         List<Booking> ownerBookings = bookingRepository.findForOwner(ownerId);
@@ -32,6 +46,7 @@ public class ReportService {
         return new OwnerDashboardResponse(revenue, history.size(), history);
     }
 
+    @Transactional(readOnly = true)
     public DriverReportResponse getDriverReport(Long driverId) {
 
         List<Booking> driverBookings = bookingRepository.findMine(driverId); //
@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Parking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changes that can alter parking search results and the in-memory indexes derived from spots and
+ * bookings (map clusters and tiles, text search, occupancy), published by the services that make
+ * them and applied by the listeners once the change has committed.
+ */
+public final class SearchInvalidationEvents {
+
+    private SearchInvalidationEvents() {}
+
+    // The spot fields the search filters on, plus its position (which map tiles it appears in)
+    public record SpotTraits(boolean covered, double pricePerHour, Double lat, Double lng) {
+        public static SpotTraits of(Parking p) {
+            return new SpotTraits(p.isCovered(), p.getPricePerHour(), p.getLat(), p.getLng());
+        }
+    }
+
+    /** A booking started or stopped blocking [start, end) on a spot with these traits. */
+    public record BookingChanged(Long parkingId, SpotTraits spot, LocalDateTime start, LocalDateTime end) {}
+
+    /** A spot was created (before is null), edited, rated or deleted (after is null). */
+    public record SpotChanged(Long parkingId, SpotTraits before, SpotTraits after) {}
+
+    /** Many spots changed at once (bulk import); every cached result is dropped. */
+    public record AllSpotsChanged() {}
+}
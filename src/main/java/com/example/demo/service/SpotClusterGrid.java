@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ClusterResponse;
+import com.example.demo.dto.SpotLocation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-zoom grids of pre-aggregated map clusters.
+ * <p>
+ * Zoom z uses square cells of 360 / 2^(z + 2) degrees, i.e. 4x4 cells per web-map tile, so a
+ * viewport shows a few hundred markers at most. Each cell keeps its count, coordinate sums
+ * (centroid) and a price histogram (min price that survives removals). Adding, moving or removing
+ * a spot touches one cell per zoom level; queries only read the cells inside the bounding box.
+ */
+class SpotClusterGrid {
+
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, SpotLocation> spots = new HashMap<>();
+
+    SpotClusterGrid(int minZoom, int maxZoom) {
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        for (int z = minZoom; z <= maxZoom; z++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    synchronized void upsert(SpotLocation spot) {
+        remove(spot.getParkingId());
+        spots.put(spot.getParkingId(), spot);
+        for (int z = minZoom; z <= maxZoom; z++) {
+            levels.get(z - minZoom).computeIfAbsent(cellKey(z, spot.getLat(), spot.getLng()), k -> new Cell()).add(spot);
+        }
+    }
+
+    synchronized void remove(Long parkingId) {
+        SpotLocation old = spots.remove(parkingId);
+        if (old == null) {
+            return;
+        }
+        for (int z = minZoom; z <= maxZoom; z++) {
+            Map<Long, Cell> level = levels.get(z - minZoom);
+            long key = cellKey(z, old.getLat(), old.getLng());
+            Cell cell = level.get(key);
+            if (cell != null && cell.remove(old)) {
+                level.remove(key);
+            }
+        }
+    }
+
+    synchronized List<ClusterResponse> query(int zoom, double minLat, double minLng, double maxLat, double maxLng) {
+        int z = Math.max(minZoom, Math.min(maxZoom, zoom));
+        Map<Long, Cell> level = levels.get(z - minZoom);
+        double step = cellDegrees(z);
+        long rowFrom = row(minLat, step), rowTo = row(maxLat, step);
+        long colFrom = col(minLng, step), colTo = col(maxLng, step);
+
+        List<ClusterResponse> out = new ArrayList<>();
+        // Probe the box's cells when there are fewer of them than occupied cells, else scan those
+        if ((rowTo - rowFrom + 1) * (colTo - colFrom + 1) <= level.size()) {
+            for (long r = rowFrom; r <= rowTo; r++) {
+                for (long c = colFrom; c <= colTo; c++) {
+                    Cell cell = level.get(key(r, c));
+                    if (cell != null) {
+                        out.add(cell.toResponse());
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Cell> e : level.entrySet()) {
+                long r = e.getKey() >>> 32, c = e.getKey() & 0xFFFFFFFFL;
+                if (r >= rowFrom && r <= rowTo && c >= colFrom && c <= colTo) {
+                    out.add(e.getValue().toResponse());
+                }
+            }
+        }
+        return out;
+    }
+
+    synchronized int size() {
+        return spots.size();
+    }
+
+    private static double cellDegrees(int zoom) {
+        return 360.0 / (1L << (zoom + CELLS_PER_TILE_SHIFT));
+    }
+
+    private static long cellKey(int zoom, double lat, double lng) {
+        double step = cellDegrees(zoom);
+        return key(row(lat, step), col(lng, step));
+    }
+
+    private static long row(double lat, double step) {
+        return (long) Math.floor((clamp(lat, -90, 90) + 90) / step);
+    }
+
+    private static long col(double lng, double step) {
+        return (long) Math.floor((clamp(lng, -180, 180) + 180) / step);
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) | col;
+    }
+
+    private static double clamp(double v, double min, double max) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    private static final class Cell {
+        int count;
+        double sumLat;
+        double sumLng;
+        long idXor; // equals the only spot's id when count == 1
+        final TreeMap<Double, Integer> prices = new TreeMap<>();
+
+        void add(SpotLocation s) {
+            count++;
+            sumLat += s.getLat();
+            sumLng += s.getLng();
+            idXor ^= s.getParkingId();
+            prices.merge(s.getPricePerHour(), 1, Integer::sum);
+        }
+
+        // Returns true when the cell is now empty
+        boolean remove(SpotLocation s) {
+            count--;
+            sumLat -= s.getLat();
+            sumLng -= s.getLng();
+            idXor ^= s.getParkingId();
+            prices.computeIfPresent(s.getPricePerHour(), (price, n) -> n == 1 ? null : n - 1);
+            return count == 0;
+        }
+
+        ClusterResponse toResponse() {
+            return new ClusterResponse(sumLat / count, sumLng / count, count, prices.firstKey(),
+                    count == 1 ? idXor : null);
+        }
+    }
+}
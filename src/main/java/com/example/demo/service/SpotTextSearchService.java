@@ -0,0 +1,347 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Parking;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.AllSpotsChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.range.DoubleRange;
+import org.apache.lucene.facet.range.DoubleRangeFacetCounts;
+import org.apache.lucene.facet.range.LongRange;
+import org.apache.lucene.facet.range.LongRangeFacetCounts;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text and faceted spot search on an embedded Lucene index.
+ * <p>
+ * The index mirrors every active spot (location and description as text; price, covered, rating
+ * and position as filterable fields) and is rebuilt from the database at startup, so it is a
+ * cache rather than a source of truth and may live in memory or in a local directory. Spot writes
+ * reach it through the events ParkingService publishes after commit and are searchable on the next
+ * query (near-real-time reopen, no commit). Matches are loaded from the database by id, in score
+ * order, so responses always carry current spot data.
+ */
+@Service
+public class SpotTextSearchService implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SpotTextSearchService.class);
+
+    private static final String ID = "id";
+    private static final String TEXT = "text";
+    private static final String PRICE = "price";
+    private static final String COVERED = "covered";
+    private static final String RATING = "rating";
+    private static final String POSITION = "position";
+
+    private static final LongRange[] COVERED_FACETS = {
+            new LongRange("covered", 1, true, 1, true),
+            new LongRange("uncovered", 0, true, 0, true)
+    };
+    private static final DoubleRange[] RATING_FACETS = {
+            new DoubleRange("4+", 4, true, 5, true),
+            new DoubleRange("3+", 3, true, 5, true),
+            new DoubleRange("2+", 2, true, 5, true)
+    };
+
+    public record Filters(Boolean covered, Double minPrice, Double maxPrice, Double minRating,
+                          Double lat, Double lng, Double radiusKm) {}
+
+    public record Result(long total, List<Parking> spots, Map<String, Map<String, Long>> facets) {}
+
+    private final ParkingRepository parkingRepository;
+    private final int maxLimit;
+    private final DoubleRange[] priceFacets;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private volatile IndexWriter writer; // replaced only when a failed rebuild is rolled back
+    private volatile SearcherManager searchers;
+
+    private final IndexRebuilder rebuilder =
+            new IndexRebuilder(log, "spot_text_index", this::loadIndex, this::refreshSpot);
+
+    public SpotTextSearchService(ParkingRepository parkingRepository,
+                                 @Value("${app.parking.text-search.index-dir:}") String indexDir,
+                                 @Value("${app.parking.text-search.max-limit:100}") int maxLimit,
+                                 @Value("${app.parking.text-search.price-facets:0-10;10-20;20-40;40-}") String priceFacets)
+            throws IOException {
+        this.parkingRepository = parkingRepository;
+        this.maxLimit = maxLimit;
+        this.priceFacets = parsePriceFacets(priceFacets);
+        this.directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        this.writer = new IndexWriter(directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    // IndexWriter.rollback() closes the writer, so reopen one on the last commit and a manager on top of it
+    private void reopenAtLastCommit() throws IOException {
+        IndexWriter reopened = new IndexWriter(directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.APPEND));
+        SearcherManager previous = searchers;
+        writer = reopened;
+        searchers = new SearcherManager(reopened, null);
+        previous.close(); // searchers already acquired stay usable until released
+    }
+
+    // "0-10;10-20;40-": lower bound inclusive, upper exclusive, a missing upper bound is open
+    static DoubleRange[] parsePriceFacets(String spec) {
+        List<DoubleRange> ranges = new ArrayList<>();
+        for (String part : spec.split(";")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+            int sep = range.indexOf('-');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Invalid price facet: " + range);
+            }
+            double min = Double.parseDouble(range.substring(0, sep).trim());
+            String upper = range.substring(sep + 1).trim();
+            double max = upper.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(upper);
+            ranges.add(new DoubleRange(range, min, true, max, false));
+        }
+        return ranges.toArray(DoubleRange[]::new);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuilder.rebuild();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searchers.close();
+        writer.close();
+        directory.close();
+    }
+
+    public Result search(String text, Filters filters, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+        if ((filters.lat() == null) != (filters.lng() == null)
+                || (filters.radiusKm() != null && filters.lat() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat, lng and radiusKm go together");
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            query.add(new MatchAllDocsQuery(), Occur.MUST);
+        }
+        for (String term : terms) {
+            query.add(new TermQuery(new Term(TEXT, term)), Occur.MUST);
+        }
+        if (filters.covered() != null) {
+            query.add(IntPoint.newExactQuery(COVERED, filters.covered() ? 1 : 0), Occur.FILTER);
+        }
+        if (filters.minPrice() != null || filters.maxPrice() != null) {
+            query.add(DoublePoint.newRangeQuery(PRICE,
+                    filters.minPrice() == null ? Double.NEGATIVE_INFINITY : filters.minPrice(),
+                    filters.maxPrice() == null ? Double.POSITIVE_INFINITY : filters.maxPrice()), Occur.FILTER);
+        }
+        if (filters.minRating() != null) {
+            query.add(DoublePoint.newRangeQuery(RATING, filters.minRating(), Double.POSITIVE_INFINITY), Occur.FILTER);
+        }
+        if (filters.radiusKm() != null) {
+            query.add(LatLonPoint.newDistanceQuery(POSITION, filters.lat(), filters.lng(), filters.radiusKm() * 1000), Occur.FILTER);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        long total = 0;
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        try {
+            SearcherManager manager = searchers;
+            IndexSearcher searcher = manager.acquire();
+            try {
+                FacetsCollectorManager.FacetsResult found =
+                        FacetsCollectorManager.search(searcher, query.build(), limit, new FacetsCollectorManager());
+                TopDocs top = found.topDocs();
+                for (ScoreDoc hit : top.scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(hit.doc).get(ID)));
+                }
+                FacetsCollector matching = found.facetsCollector();
+                for (FacetsCollector.MatchingDocs docs : matching.getMatchingDocs()) {
+                    total += docs.totalHits;
+                }
+                facets.put(COVERED, counts(new LongRangeFacetCounts(COVERED, matching, COVERED_FACETS), COVERED));
+                facets.put(PRICE, counts(new DoubleRangeFacetCounts(PRICE,
+                        DoubleValuesSource.fromDoubleField(PRICE), matching, priceFacets), PRICE));
+                facets.put(RATING, counts(new DoubleRangeFacetCounts(RATING,
+                        DoubleValuesSource.fromDoubleField(RATING), matching, RATING_FACETS), RATING));
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        // Current rows, in score order; a spot deactivated since the last reopen is skipped
+        Map<Long, Parking> byId = parkingRepository.findAllById(ids).stream()
+                .filter(Parking::isActive)
+                .collect(Collectors.toMap(Parking::getId, Function.identity()));
+        List<Parking> spots = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new Result(total, spots, facets);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpotChanged(SpotChanged event) {
+        if (rebuilder.recordIfRebuilding(event.parkingId())) {
+            return; // the rebuild writes into the same index, so apply it once the rebuild is visible
+        }
+        rebuilder.refresh(event.parkingId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAllSpotsChanged(AllSpotsChanged event) {
+        rebuilder.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.parking.text-search.rebuild-interval:PT6H}",
+            fixedDelayString = "${app.parking.text-search.rebuild-interval:PT6H}")
+    public void rebuild() {
+        rebuilder.rebuild();
+    }
+
+    private String loadIndex() throws IOException {
+        List<Parking> spots = parkingRepository.findByActiveTrue();
+        // Commit the incremental updates first so a failure below can roll back to exactly this state
+        writer.commit();
+        try {
+            // Searchers keep the previous snapshot until the refresh below, so no query sees a half-built index
+            writer.deleteAll();
+            for (Parking p : spots) {
+                writer.addDocument(toDocument(p));
+            }
+            writer.commit();
+        } catch (IOException | RuntimeException ex) {
+            discardFailedRebuild();
+            throw ex;
+        }
+        searchers.maybeRefreshBlocking();
+        return "spots=" + spots.size();
+    }
+
+    // Without this the pending deleteAll() would reach the searchers with the next spot update
+    private void discardFailedRebuild() {
+        try {
+            writer.rollback();
+            reopenAtLastCommit();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("action=spot_text_index_rollback fail reason={}", ex.getClass().getSimpleName());
+        }
+    }
+
+    private void refreshSpot(Long parkingId) throws IOException {
+        Parking p = parkingRepository.findById(parkingId).filter(Parking::isActive).orElse(null);
+        if (p == null) {
+            writer.deleteDocuments(new Term(ID, parkingId.toString()));
+        } else {
+            writer.updateDocument(new Term(ID, parkingId.toString()), toDocument(p));
+        }
+        // Blocking, so the write is searchable once the spot's transaction listener returns
+        searchers.maybeRefreshBlocking();
+    }
+
+    private static Document toDocument(Parking p) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, p.getId().toString(), Field.Store.YES));
+        String description = p.getDescription() == null ? "" : p.getDescription();
+        doc.add(new TextField(TEXT, p.getLocation() + "\n" + description, Field.Store.NO));
+        doc.add(new DoublePoint(PRICE, p.getPricePerHour()));
+        doc.add(new DoubleDocValuesField(PRICE, p.getPricePerHour()));
+        doc.add(new IntPoint(COVERED, p.isCovered() ? 1 : 0));
+        doc.add(new NumericDocValuesField(COVERED, p.isCovered() ? 1 : 0));
+        doc.add(new DoublePoint(RATING, p.getAverageRating()));
+        doc.add(new DoubleDocValuesField(RATING, p.getAverageRating()));
+        if (p.getLat() != null && p.getLng() != null) {
+            doc.add(new LatLonPoint(POSITION, p.getLat(), p.getLng()));
+        }
+        return doc;
+    }
+
+    // Same analysis as indexing, so "EV-Charger" finds "ev charger"; every word must match
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream tokens = analyzer.tokenStream(TEXT, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return terms;
+    }
+
+    private static Map<String, Long> counts(Facets facets, String dim) throws IOException {
+        Map<String, Long> out = new LinkedHashMap<>();
+        FacetResult result = facets.getAllChildren(dim);
+        if (result != null) {
+            for (LabelAndValue lv : result.labelValues) {
+                out.put(lv.label, lv.value.longValue());
+            }
+        }
+        return out;
+    }
+}
@@ -7,12 +7,15 @@ import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.PasswordResetTokenRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PasswordHashingService;
+import com.example.demo.security.TokenHashing;
+import com.example.demo.security.TokenRevocationService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,7 +24,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class UserService {
@@ -29,10 +31,12 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordEncoder;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final GoogleAuthService googleAuthService;
     private final EmailService emailService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     private static final String TEMP_PASSWORD_CHARS =
             "ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnpqrstuvwxyz23456789";
@@ -45,15 +49,19 @@ public class UserService {
     private long resetTokenExpirationMinutes;
 
     public UserService(UserRepository userRepository,
-                       BCryptPasswordEncoder passwordEncoder,
+                       PasswordHashingService passwordEncoder,
                        PasswordResetTokenRepository passwordResetTokenRepository,
                        GoogleAuthService googleAuthService,
-                       EmailService emailService) {
+                       EmailService emailService,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.googleAuthService = googleAuthService;
         this.emailService = emailService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     // ============================
@@ -66,11 +74,6 @@ public class UserService {
                 safeEmail(request.getEmail()),
                 request.getRole());
 
-        userRepository.findByEmail(request.getEmail()).ifPresent(user -> {
-            logger.warn("action=register_user fail reason=EMAIL_EXISTS email={}", safeEmail(request.getEmail()));
-            throw new IllegalArgumentException("Email already in use");
-        });
-
         Role role;
         try {
             if (request.getRole() == null) {
@@ -92,7 +95,15 @@ public class UserService {
         user.setRole(Role.BOTH);
         user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
 
-        User saved = userRepository.save(user);
+        // Single INSERT: the unique index on email_normalized rejects duplicates, so there is no
+        // check-then-insert race. Registration sets no other unique column.
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            logger.warn("action=register_user fail reason=EMAIL_EXISTS email={}", safeEmail(request.getEmail()));
+            throw new IllegalArgumentException("Email already in use");
+        }
 
         logger.info("action=register_user success userId={} email={} role={}",
                 saved.getId(),
@@ -106,7 +117,7 @@ public class UserService {
     public User login(LoginRequest request) {
         logger.info("action=login start email={}", safeEmail(request.getEmail()));
 
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userRepository.findByEmailNormalized(User.normalizeEmail(request.getEmail()))
                 .orElseThrow(() -> {
                     logger.warn("action=login fail reason=USER_NOT_FOUND email={}", safeEmail(request.getEmail()));
                     return new IllegalArgumentException("Invalid email or password");
@@ -118,6 +129,8 @@ public class UserService {
             throw new IllegalArgumentException("Invalid email or password");
         }
 
+        upgradeHashIfNeeded(user, request.getPassword());
+
         logger.info("action=login success userId={} email={} role={}",
                 user.getId(),
                 safeEmail(user.getEmail()),
@@ -126,6 +139,24 @@ public class UserService {
         return user;
     }
 
+    // Re-hash with the configured BCrypt cost while the raw password is at hand. Best effort:
+    // a busy hashing pool or a failed update just means we try again on the next login.
+    private void upgradeHashIfNeeded(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        if (!passwordEncoder.needsRehash(oldHash)) {
+            return;
+        }
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.upgradePasswordHash(user.getId(), oldHash, newHash) == 1) {
+                user.setPasswordHash(newHash);
+                logger.info("action=password_rehash success userId={}", user.getId());
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("action=password_rehash fail userId={} reason={}", user.getId(), ex.getClass().getSimpleName());
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<UserSummary> getAllUsers() {
         logger.info("action=list_users start");
@@ -176,25 +207,20 @@ public class UserService {
                 user.setEmail(null);
             } else {
                 // Basic sanity validation (do not rely ONLY on this; add @Email in DTO too)
-                String normalized = email.toLowerCase();
-                if (!normalized.contains("@") || normalized.startsWith("@") || normalized.endsWith("@")) {
+                if (!email.contains("@") || email.startsWith("@") || email.endsWith("@")) {
                     throw new IllegalArgumentException("Invalid email");
                 }
-
-                // If changed -> ensure uniqueness
-                String current = user.getEmail() == null ? null : user.getEmail().trim().toLowerCase();
-                if (current == null || !current.equals(normalized)) {
-                    // if you have findByEmailIgnoreCase, prefer it to exclude self by id
-                    boolean taken = userRepository.existsByEmail(normalized);
-                    if (taken) {
-                        throw new IllegalArgumentException("Email already in use");
-                    }
-                    user.setEmail(normalized);
-                }
+                // Uniqueness is checked by the email_normalized index when the row is flushed below
+                user.setEmail(email);
             }
         }
 
-        User saved = userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException("Email already in use");
+        }
         return toSummary(saved);
     }
 
@@ -229,6 +255,10 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(next));
         User saved = userRepository.save(user);
 
+        // Sign out other devices; the caller hands this client fresh tokens
+        refreshTokenService.revokeAllForUser(userId);
+        tokenRevocationService.revokeAllForUser(userId);
+
         return toSummary(saved);
     }
 
@@ -247,9 +277,14 @@ public class UserService {
             throw new IllegalArgumentException("Invalid role: " + req.getRole());
         }
 
+        boolean changed = user.getRole() != role;
         user.setRole(role);
 
         User saved = userRepository.save(user);
+        if (changed) {
+            // Tokens carry the role claim; old ones must not keep the previous permissions
+            tokenRevocationService.revokeAllForUser(userId);
+        }
         return toSummary(saved);
     }
 
@@ -261,7 +296,7 @@ public class UserService {
     public String resetPassword(String email) {
         logger.info("action=reset_password_legacy start email={}", safeEmail(email));
 
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findByEmailNormalized(User.normalizeEmail(email))
                 .orElseThrow(() -> {
                     logger.warn("action=reset_password_legacy fail reason=USER_NOT_FOUND email={}", safeEmail(email));
                     return new IllegalArgumentException("User not found");
@@ -283,20 +318,17 @@ public class UserService {
     public void createPasswordResetToken(String email) {
         logger.info("action=reset_token_create start email={}", safeEmail(email));
 
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findByEmailNormalized(User.normalizeEmail(email))
                 .orElseThrow(() -> {
                     logger.warn("action=reset_token_create fail reason=USER_NOT_FOUND email={}", safeEmail(email));
                     return new IllegalArgumentException("User with given email does not exist");
                 });
 
-        String token = UUID.randomUUID().toString();
+        String token = TokenHashing.newToken();
         LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(resetTokenExpirationMinutes);
 
-        PasswordResetToken resetToken = new PasswordResetToken();
-        resetToken.setUser(user);
-        resetToken.setToken(token);
-        resetToken.setExpiresAt(expiresAt);
-        resetToken.setUsed(false);
+        // Only the hash is stored; the raw token exists in the emailed link alone
+        PasswordResetToken resetToken = new PasswordResetToken(user, TokenHashing.sha256(token), expiresAt);
 
         passwordResetTokenRepository.save(resetToken);
 
@@ -316,7 +348,7 @@ public class UserService {
         // DO NOT log token or newPassword
         logger.info("action=reset_password_with_token start");
 
-        PasswordResetToken resetToken = passwordResetTokenRepository.findByToken(token)
+        PasswordResetToken resetToken = passwordResetTokenRepository.findByTokenHash(TokenHashing.sha256(token))
                 .orElseThrow(() -> {
                     logger.warn("action=reset_password_with_token fail reason=TOKEN_NOT_FOUND");
                     return new IllegalArgumentException("Invalid or unknown reset token");
@@ -339,8 +371,13 @@ public class UserService {
         userRepository.save(user);
 
         resetToken.setUsed(true);
+        // Expire it now as well, so the purge job (which only looks at expires_at) removes it
+        resetToken.setExpiresAt(LocalDateTime.now());
         passwordResetTokenRepository.save(resetToken);
 
+        refreshTokenService.revokeAllForUser(user.getId());
+        tokenRevocationService.revokeAllForUser(user.getId());
+
         logger.info("action=reset_password_with_token success userId={} email={}",
                 user.getId(), safeEmail(user.getEmail()));
     }
@@ -379,7 +416,7 @@ public class UserService {
         request.setFullName(verifiedData.getFullName());
         request.setGoogleUserId(googleSub);
 
-        return userRepository.findByEmail(request.getEmail())
+        return userRepository.findByEmailNormalized(User.normalizeEmail(request.getEmail()))
                 .map(existingUser -> handleExistingGoogleUser(existingUser, request))
                 .orElseGet(() -> registerGoogleUserViaGoogle(request));
     }
@@ -422,7 +459,14 @@ public class UserService {
         String tempPassword = generateRandomPassword(12);
         user.setPasswordHash(passwordEncoder.encode(tempPassword));
 
-        User saved = userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            // Lost a race with a concurrent first login for the same email
+            logger.warn("action=google_register fail reason=EMAIL_EXISTS email={}", safeEmail(request.getEmail()));
+            throw new IllegalArgumentException("Email already in use");
+        }
 
         logger.info("action=google_register success userId={} email={}",
                 saved.getId(), safeEmail(saved.getEmail()));
@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionLogSamplingFilterTest {
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        logger = new LoggerContext().getLogger("test");
+        logger.setLevel(Level.INFO);
+    }
+
+    private ActionLogSamplingFilter filter(String rules) {
+        ActionLogSamplingFilter filter = new ActionLogSamplingFilter();
+        filter.setRules(rules);
+        filter.start();
+        return filter;
+    }
+
+    private FilterReply decide(ActionLogSamplingFilter filter, Level level, String format) {
+        return filter.decide(null, logger, level, format, null, null);
+    }
+
+    @Test
+    void rateRule_ShouldCapEventsPerSecondAndCountDrops() {
+        ActionLogSamplingFilter filter = filter("jwt_auth fail:3/s");
+
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (decide(filter, Level.WARN, "action=jwt_auth fail path={} reason={}") == FilterReply.NEUTRAL) {
+                admitted++;
+            }
+        }
+
+        // May straddle a second boundary, which resets the window once
+        assertTrue(admitted >= 3 && admitted <= 6, "admitted=" + admitted);
+        assertEquals(10 - admitted, filter.getParsedRules().get(0).getDropped());
+    }
+
+    @Test
+    void samplingRule_ShouldDropInfoButNeverWarnings() {
+        ActionLogSamplingFilter filter = filter("parking_busy:0");
+
+        assertEquals(FilterReply.DENY, decide(filter, Level.INFO, "action=parking_busy start parkingId={}"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, Level.WARN, "action=parking_busy fail parkingId={}"));
+    }
+
+    @Test
+    void rules_ShouldMatchOnWordBoundaryAndIgnoreDisabledOrUnrelatedEvents() {
+        ActionLogSamplingFilter filter = filter("parking_busy:0");
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, Level.INFO, "action=parking_busy_extra start"));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, Level.INFO, "Started application"));
+        // Below the logger's level: the normal level check handles it and nothing is counted
+        assertEquals(FilterReply.NEUTRAL, decide(filter, Level.DEBUG, "action=parking_busy start"));
+        assertEquals(0, filter.getParsedRules().get(0).getDropped());
+    }
+
+    @Test
+    void invalidRules_ShouldLeaveFilterStopped() {
+        ActionLogSamplingFilter filter = new ActionLogSamplingFilter();
+        filter.setContext(new LoggerContext());
+        filter.setRules("jwt_auth fail:lots");
+        filter.start();
+
+        assertFalse(filter.isStarted());
+        assertThrows(IllegalArgumentException.class, () -> ActionLogSamplingFilter.parse("parking_busy:1.5"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BookingStatusColumnMigrationTest {
+
+    private static final String ALTER = "ALTER TABLE bookings MODIFY status VARCHAR(16) NOT NULL";
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final BookingStatusColumnMigration migration = new BookingStatusColumnMigration(jdbc);
+
+    private void database(String product, String statusType) {
+        when(jdbc.execute(any(ConnectionCallback.class))).thenReturn(product);
+        lenient().when(jdbc.queryForList(anyString(), eq(String.class)))
+                .thenReturn(statusType == null ? List.of() : List.of(statusType));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ShouldWidenAnEnumColumnOnMySql() {
+        database("MySQL", "enum");
+        migration.afterSingletonsInstantiated();
+        verify(jdbc).execute(ALTER);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ShouldLeaveAVarcharColumnAndOtherDatabasesAlone() {
+        database("MySQL", "varchar");
+        migration.afterSingletonsInstantiated();
+        database("H2", "ENUM");
+        migration.afterSingletonsInstantiated();
+        verify(jdbc, never()).execute(anyString());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ShouldFailStartupWhenTheAlterFails() {
+        database("MySQL", "enum");
+        doThrow(new DataAccessResourceFailureException("denied")).when(jdbc).execute(ALTER);
+        assertThrows(IllegalStateException.class, migration::afterSingletonsInstantiated);
+    }
+}
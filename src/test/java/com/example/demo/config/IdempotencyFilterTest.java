@@ -0,0 +1,144 @@
+package com.example.demo.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(true, "POST /api/bookings", Duration.ofHours(1), 1000, 1024);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(5L, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse call(String key, String body, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            // The controller must still see the body
+            String seen = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int n = executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"id\":" + n + ",\"body\":" + seen + "}");
+        });
+        return response;
+    }
+
+    @Test
+    void retryWithSameKeyAndBody_ShouldReplayTheFirstResponse() throws Exception {
+        MockHttpServletResponse first = call("k1", "{\"parkingId\":1}", 200);
+        MockHttpServletResponse retry = call("k1", "{\"parkingId\":1}", 200);
+
+        assertEquals(1, executions.get());
+        assertEquals("{\"id\":1,\"body\":{\"parkingId\":1}}", first.getContentAsString());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("application/json", retry.getContentType());
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_ShouldBeRejected() throws Exception {
+        call("k1", "{\"parkingId\":1}", 200);
+
+        assertEquals(422, call("k1", "{\"parkingId\":2}", 200).getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequest_ShouldNotBeCached() throws Exception {
+        assertEquals(409, call("k1", "{}", 409).getStatus());
+        assertEquals(200, call("k1", "{}", 200).getStatus());
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void requestsWithoutKeyOrFromOtherUsers_ShouldRunNormally() throws Exception {
+        call(null, "{}", 200);
+        call(null, "{}", 200);
+        call("k1", "{}", 200);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(6L, null, List.of()));
+        call("k1", "{}", 200);
+
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void store_ShouldExpireEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        IdempotencyStore store = new IdempotencyStore(100, 1000, 1, now::get);
+        store.begin("a", "fp");
+        store.complete("a", new IdempotencyStore.StoredResponse(200, null, new byte[0]));
+
+        now.set(99);
+        assertEquals(IdempotencyStore.Outcome.REPLAY, store.begin("a", "fp").outcome());
+        now.set(100);
+        assertEquals(IdempotencyStore.Outcome.STARTED, store.begin("a", "fp").outcome());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void asyncReader_ShouldGetTheBufferedBodyThroughAReadListener() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings");
+        request.addHeader(IdempotencyFilter.HEADER, "k-async");
+        request.setContent("{\"parkingId\":1}".getBytes(StandardCharsets.UTF_8));
+        StringBuilder seen = new StringBuilder();
+        AtomicInteger allRead = new AtomicInteger();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        seen.append((char) in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            ((HttpServletResponse) res).setStatus(200);
+        });
+
+        assertEquals("{\"parkingId\":1}", seen.toString());
+        assertEquals(1, allRead.get());
+    }
+}
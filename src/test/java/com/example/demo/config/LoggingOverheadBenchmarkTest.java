@@ -0,0 +1,119 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Request-thread time spent logging one authenticated request, before and after the async/sampled
+ * pipeline. Opt-in: {@code mvn test -Dtest=LoggingOverheadBenchmarkTest -Dbenchmarks=true}.
+ * <p>
+ * "before" replays the old pattern (three DIAGNOSTIC lines from the JWT filter plus controller
+ * start/success, written synchronously); "after" replays the current one (controller start/success
+ * with the default sampling rule, through the AsyncAppender). Both write to a real file.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class LoggingOverheadBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareRequestThreadLoggingCost() throws Exception {
+        double before = run(false, dir.resolve("before.log"));
+        double after = run(true, dir.resolve("after.log"));
+
+        System.out.printf("logging per request (request thread): before=%.2f us, after=%.2f us, speedup=%.1fx%n",
+                before / 1000, after / 1000, before / after);
+    }
+
+    private double run(boolean newPipeline, Path file) throws Exception {
+        LoggerContext context = new LoggerContext();
+        Appender<ILoggingEvent> appender = fileAppender(context, file);
+        if (newPipeline) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(appender);
+            async.start();
+            appender = async;
+
+            ActionLogSamplingFilter sampling = new ActionLogSamplingFilter();
+            sampling.setContext(context);
+            sampling.setRules("booking_list_mine:0.2");
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        Logger filterLog = context.getLogger("com.example.demo.security.JwtAuthenticationFilter");
+        Logger controllerLog = context.getLogger("com.example.demo.controller.BookingController");
+
+        // Warm up, then measure
+        simulate(newPipeline, filterLog, controllerLog, 5_000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> simulate(newPipeline, filterLog, controllerLog, REQUESTS_PER_THREAD));
+        }
+        long totalNanos = 0;
+        for (Future<Long> f : pool.invokeAll(tasks)) {
+            totalNanos += f.get();
+        }
+        pool.shutdown();
+        context.stop();
+        return (double) totalNanos / (THREADS * REQUESTS_PER_THREAD);
+    }
+
+    private long simulate(boolean newPipeline, Logger filterLog, Logger controllerLog, int requests) {
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            Long userId = (long) (i % 1000);
+            if (!newPipeline) {
+                filterLog.info("DIAGNOSTIC: Path={}", "/api/bookings/my");
+                filterLog.info("DIAGNOSTIC: Token Subject (expecting ID) = '{}'", userId);
+                filterLog.info("DIAGNOSTIC: Token Role (expecting String) = '{}'", "DRIVER");
+            }
+            controllerLog.info("action=booking_list_mine start userId={}", userId);
+            controllerLog.info("action=booking_list_mine success userId={} count={}", userId, 12);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context, Path file) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t %logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.RegisterRequest;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.security.JwtService;
+import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the primary/replica split end to end (open-in-view included) against two pools on the same
+ * database, recording which pool prepared each statement.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=${spring.datasource.url}",
+        "app.datasource.replica.check-replication=false"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoSpyBean(name = "primaryDataSource")
+    private HikariDataSource primary;
+
+    @MockitoSpyBean(name = "replicaDataSource")
+    private HikariDataSource replica;
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void recordStatementsPerPool() throws Exception {
+        doAnswer(inv -> recording((Connection) inv.callRealMethod(), "primary")).when(primary).getConnection();
+        doAnswer(inv -> recording((Connection) inv.callRealMethod(), "replica")).when(replica).getConnection();
+    }
+
+    private Connection recording(Connection target, String pool) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                        statements.add(pool + ": " + sql.toLowerCase(Locale.ROOT));
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+
+    private List<String> on(String pool, String fragment) {
+        return statements.stream().filter(s -> s.startsWith(pool + ": ") && s.contains(fragment)).toList();
+    }
+
+    private User register(String email, String phone) {
+        RegisterRequest req = new RegisterRequest();
+        req.setFullName("Replica User");
+        req.setEmail(email);
+        req.setPhone(phone);
+        req.setPassword("Password1!");
+        req.setRole(Role.DRIVER);
+        return userService.register(req);
+    }
+
+    @Test
+    void writeAfterReadOnlyCallInTheSameRequest_runsOnThePrimary() throws Exception {
+        register("replica-login@example.com", "050-7777001");
+        statements.clear();
+
+        // Login reads the user in a read-only transaction, then inserts a refresh token
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", "replica-login@example.com", "password", "Password1!"))))
+                .andExpect(status().isOk());
+
+        assertThat(on("replica", "from users")).isNotEmpty();
+        assertThat(on("primary", "insert into refresh_tokens")).hasSize(1);
+        assertThat(on("replica", "insert ")).isEmpty();
+    }
+
+    @Test
+    void versionLookupsOutsideServiceTransactions_areServedByTheReplica() throws Exception {
+        String token = jwtService.generateToken(register("replica-search@example.com", "050-7777002"));
+        statements.clear();
+
+        mockMvc.perform(get("/api/parking-spots/search").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(on("replica", "parkings")).isNotEmpty();
+        assertThat(on("primary", "parkings")).isEmpty();
+    }
+}
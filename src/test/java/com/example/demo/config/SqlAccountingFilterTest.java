@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlAccountingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlAccountingFilter filter = new SqlAccountingFilter(registry, 5, 3);
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/owner");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/bookings/owner");
+        return request;
+    }
+
+    @Test
+    void doFilter_ShouldAttachStatsAndFlagRepeatedStatements() throws Exception {
+        MockHttpServletRequest request = request();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            SqlStats.onStatement("select b from booking b where owner_id=?");
+            for (int i = 0; i < 3; i++) {
+                SqlStats.onStatement("select u from users u where id=?");
+                SqlStats.onRowLoaded();
+            }
+        });
+
+        SqlStats stats = (SqlStats) request.getAttribute(SqlStats.REQUEST_ATTRIBUTE);
+        assertEquals(4, stats.getStatements());
+        assertEquals(2, stats.getDistinctStatements());
+        assertEquals(3, stats.getRowsLoaded());
+        assertEquals("select u from users u where id=?", stats.getMostRepeated().getKey());
+
+        assertEquals(1.0, registry.get("easypark.sql.flagged").tag("reason", "n_plus_one").counter().count());
+        assertNull(registry.find("easypark.sql.flagged").tag("reason", "too_many_statements").counter());
+        assertEquals(4.0, registry.get("easypark.sql.statements").tag("uri", "/api/bookings/owner").summary().totalAmount());
+        assertNull(SqlStats.current());
+    }
+
+    @Test
+    void doFilter_ShouldFlagRequestsOverStatementBudget() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < 6; i++) {
+                SqlStats.onStatement("select " + i);
+            }
+        });
+
+        assertEquals(1.0, registry.get("easypark.sql.flagged").tag("reason", "too_many_statements").counter().count());
+        assertNull(registry.find("easypark.sql.flagged").tag("reason", "n_plus_one").counter());
+    }
+
+    @Test
+    void hooks_ShouldIgnoreWorkOutsideARequest() {
+        SqlStats.onStatement("select 1");
+        SqlStats.onRowLoaded();
+        assertNull(SqlStats.current());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class UserEmailBackfillTests {
+
+    @Autowired
+    private UserEmailBackfill backfill;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // A row as it looked before email_normalized existed
+    private Long legacyUser(String email) {
+        User u = userRepository.saveAndFlush(new User("Legacy", "placeholder-" + System.nanoTime() + "@test.com",
+                "0500000000", Role.DRIVER, "hash"));
+        entityManager.createQuery("update User u set u.email = :email, u.emailNormalized = null where u.id = :id")
+                .setParameter("email", email)
+                .setParameter("id", u.getId())
+                .executeUpdate();
+        return u.getId();
+    }
+
+    @Test
+    void run_WithOneCollidingPair_ShouldStillBackfillEveryoneElse() {
+        Long upper = legacyUser("Dup.Backfill@Test.com");
+        Long lower = legacyUser("dup.backfill@test.com");
+        Long other = legacyUser(" Other.Backfill@Test.com ");
+
+        backfill.run(null);
+        entityManager.clear();
+
+        assertThat(userRepository.findById(other).orElseThrow().getEmailNormalized())
+                .isEqualTo("other.backfill@test.com");
+        assertThat(userRepository.findById(upper).orElseThrow().getEmailNormalized()).isNull();
+        assertThat(userRepository.findById(lower).orElseThrow().getEmailNormalized()).isNull();
+        assertThat(userRepository.findByEmailNormalized("other.backfill@test.com")).isPresent();
+    }
+}
@@ -1,20 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.SqlStats;
 import com.example.demo.dto.ForgotPasswordRequest;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.RegisterRequest;
 import com.example.demo.dto.ResetPasswordRequest;
 import com.example.demo.model.Role;
+import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.JwtService;
 import com.example.demo.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test; // שים לב לשימוש ב-junit.jupiter.api
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
@@ -46,6 +50,9 @@ class AuthControllerTests {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private EntityManager entityManager;
+
 
 
     private RegisterRequest buildRegisterRequest(
@@ -77,7 +84,7 @@ class AuthControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Registration successful"));
 
-        assertThat(userRepository.existsByEmail("api@example.com")).isTrue();
+        assertThat(userRepository.findByEmailNormalized("api@example.com")).isPresent();
     }
 
     @Test
@@ -126,6 +133,181 @@ class AuthControllerTests {
                 .andExpect(jsonPath("$.token").exists());
     }
 
+    @Test
+    void loginEndpoint_issuesASingleUserLookup() throws Exception {
+        userService.register(buildRegisterRequest(
+                "Sql Stats User",
+                "sqlstats@example.com",
+                "050-6666667",
+                "Password1!",
+                Role.DRIVER
+        ));
+        // Start from an empty persistence context, as a real request would
+        entityManager.flush();
+        entityManager.clear();
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail("sqlstats@example.com");
+        login.setPassword("Password1!");
+
+        MvcResult result = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(login))
+                )
+                .andExpect(status().isOk())
+                .andReturn();
+
+        SqlStats stats = (SqlStats) result.getRequest().getAttribute(SqlStats.REQUEST_ATTRIBUTE);
+        // One user lookup plus the refresh-token insert
+        assertThat(stats.getStatements()).isEqualTo(2);
+        assertThat(stats.getRowsLoaded()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshEndpoint_rotatesTokenAndRejectsReuse() throws Exception {
+        userService.register(buildRegisterRequest(
+                "Refresh User",
+                "refresh@example.com",
+                "050-6666668",
+                "Password1!",
+                Role.DRIVER
+        ));
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail("refresh@example.com");
+        login.setPassword("Password1!");
+
+        MvcResult loginResult = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(login))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn();
+        String first = objectMapper.readTree(loginResult.getResponse().getContentAsString())
+                .get("refreshToken").asText();
+
+        MvcResult refreshResult = mockMvc.perform(
+                        post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("refreshToken", first)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.user.email").value("refresh@example.com"))
+                .andReturn();
+        String second = objectMapper.readTree(refreshResult.getResponse().getContentAsString())
+                .get("refreshToken").asText();
+        assertThat(second).isNotEqualTo(first);
+
+        // Replaying the consumed token revokes the whole family, including the token it was rotated into
+        mockMvc.perform(
+                        post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("refreshToken", first)))
+                )
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(
+                        post("/api/auth/refresh")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(Map.of("refreshToken", second)))
+                )
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutEndpoint_revokesTheAccessToken() throws Exception {
+        User user = userService.register(buildRegisterRequest(
+                "Logout User",
+                "logout@example.com",
+                "050-6666669",
+                "Password1!",
+                Role.DRIVER
+        ));
+        String token = jwtService.generateToken(user);
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        // Other sessions of the same user are unaffected
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + jwtService.generateToken(user)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutEndpoint_twiceWithTheSameToken_succeedsBothTimes() throws Exception {
+        User user = userService.register(buildRegisterRequest(
+                "Double Logout User",
+                "double.logout@example.com",
+                "050-6666671",
+                "Password1!",
+                Role.DRIVER
+        ));
+        String token = jwtService.generateToken(user);
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Logged out"));
+
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void invalidOrMissingToken_returns401SoClientsRefresh() throws Exception {
+        mockMvc.perform(get("/api/users/me").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/users/me"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void emailMatching_isCaseInsensitive() throws Exception {
+        userService.register(buildRegisterRequest(
+                "Case User",
+                "Case.User@Example.com",
+                "050-6666670",
+                "Password1!",
+                Role.DRIVER
+        ));
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail("case.user@example.COM");
+        login.setPassword("Password1!");
+
+        mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(login))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.email").value("Case.User@Example.com"));
+
+        RegisterRequest duplicate = buildRegisterRequest(
+                "Case User 2",
+                "CASE.USER@example.com",
+                "050-6666671",
+                "Password1!",
+                Role.DRIVER
+        );
+        mockMvc.perform(
+                        post("/api/auth/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(duplicate))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Email already in use"));
+    }
+
     @Test
     void loginEndpoint_withWrongPassword_returns400() throws Exception {
         // Arrange
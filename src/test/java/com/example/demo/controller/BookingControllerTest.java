@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.CreateBookingRequest;
+import com.example.demo.dto.DataVersion;
 import com.example.demo.dto.RatingRequest;
 import com.example.demo.dto.UpdateBookingStatusRequest;
 import com.example.demo.dto.UserSummary;
@@ -13,6 +14,7 @@ import com.example.demo.service.EmailService;
 import com.example.demo.service.RatingService;
 import com.example.demo.service.UserService;
 import com.example.demo.security.JwtService;
+import com.example.demo.security.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -57,6 +59,9 @@ class BookingControllerTest {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -116,6 +121,7 @@ class BookingControllerTest {
         setEntityId(mockBooking, 555L);
         mockBooking.setStatus(BookingStatus.PENDING);
 
+        when(bookingService.mineVersion(driverId)).thenReturn(new DataVersion(1L, LocalDateTime.now()));
         when(bookingService.listMine(driverId)).thenReturn(List.of(mockBooking));
 
         mockMvc.perform(get("/api/bookings/my")
@@ -133,6 +139,7 @@ class BookingControllerTest {
         setEntityId(mockBooking, 555L);
         mockBooking.setStatus(BookingStatus.PENDING);
 
+        when(bookingService.ownerVersion(ownerId)).thenReturn(new DataVersion(1L, LocalDateTime.now()));
         when(bookingService.listForOwner(ownerId)).thenReturn(List.of(mockBooking));
 
         mockMvc.perform(get("/api/bookings/owner")
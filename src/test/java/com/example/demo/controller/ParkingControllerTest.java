@@ -1,32 +1,59 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.CreateParkingRequest;
+import com.example.demo.dto.DataVersion;
+import com.example.demo.dto.ParkingImportResponse;
+import com.example.demo.dto.ParkingResponse;
+import com.example.demo.dto.SpotLocation;
 import com.example.demo.dto.UpdateParkingRequest;
 import com.example.demo.model.AvailabilityType;
 import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.AvailabilityCalendarService;
+import com.example.demo.service.FreeWindowService;
+import com.example.demo.service.LocationAutocompleteService;
+import com.example.demo.service.OccupancyService;
+import com.example.demo.service.ParkingClusterService;
+import com.example.demo.service.ParkingImportService;
+import com.example.demo.service.ParkingRanker;
+import com.example.demo.service.ParkingSearchCache;
 import com.example.demo.service.ParkingService;
+import com.example.demo.service.ParkingTileService;
+import com.example.demo.service.SpotTextSearchService;
 import com.example.demo.security.JwtService;
+import com.example.demo.security.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ParkingController.class)
+@Import({ParkingRanker.class, AvailabilityCalendarService.class})
 @AutoConfigureMockMvc(addFilters = false)
 class ParkingControllerTest {
 
@@ -36,9 +63,43 @@ class ParkingControllerTest {
     @MockitoBean
     private ParkingService parkingService;
 
+    @MockitoBean
+    private ParkingImportService parkingImportService;
+
+    @MockitoBean
+    private ParkingSearchCache searchCache;
+
+    @MockitoBean
+    private ParkingClusterService clusterService;
+
+    @MockitoBean
+    private ParkingTileService tileService;
+
+    @MockitoBean
+    private LocationAutocompleteService autocompleteService;
+
+    @MockitoBean
+    private SpotTextSearchService textSearchService;
+
+    @MockitoBean
+    private FreeWindowService freeWindowService;
+
+    // The real calendar service, so its request validation and 404 are exercised end to end
+    @MockitoBean
+    private ParkingRepository parkingRepository;
+
+    @MockitoBean
+    private BookingRepository bookingRepository;
+
+    @MockitoBean
+    private OccupancyService occupancyService;
+
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -131,10 +192,35 @@ class ParkingControllerTest {
         p.setLocation("My Spot");
         p.setAvailabilityType(AvailabilityType.SPECIFIC);
 
+        when(parkingService.mineVersion(userId)).thenReturn(new DataVersion(1L, LocalDateTime.now()));
         when(parkingService.listMine(userId)).thenReturn(List.of(p));
 
         mockMvc.perform(get("/api/parking-spots/my")
                         .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void mySpots_WithMatchingETag_ShouldReturn304WithoutLoadingSpots() throws Exception {
+        Long userId = 100L;
+        TestingAuthenticationToken auth = new TestingAuthenticationToken(userId, "PWD", "ROLE_OWNER");
+        DataVersion version = new DataVersion(3L, LocalDateTime.of(2030, 1, 1, 8, 0));
+        when(parkingService.mineVersion(userId)).thenReturn(version);
+
+        mockMvc.perform(get("/api/parking-spots/my")
+                        .header("If-None-Match", version.etag("parking-mine", userId))
+                        .principal(auth))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(parkingService, never()).listMine(any());
+
+        // Any change to the spots (count or latest updatedAt) yields a different tag
+        when(parkingService.mineVersion(userId)).thenReturn(new DataVersion(3L, LocalDateTime.of(2030, 1, 1, 8, 1)));
+        mockMvc.perform(get("/api/parking-spots/my")
+                        .header("If-None-Match", version.etag("parking-mine", userId))
+                        .principal(auth))
                 .andExpect(status().isOk());
     }
 
@@ -146,13 +232,137 @@ class ParkingControllerTest {
         p.setPricePerHour(15.0);
         p.setAvailabilityType(AvailabilityType.SPECIFIC);
 
-        when(parkingService.search(eq(true), eq(10.0), eq(50.0)))
-                .thenReturn(List.of(p));
+        when(searchCache.get(eq(ParkingSearchCache.SearchKey.of(true, 10.0, 50.0, null, null)), any()))
+                .thenReturn(new ParkingSearchCache.Results(new DataVersion(1L, LocalDateTime.now()), List.of(ParkingResponse.from(p))));
 
         mockMvc.perform(get("/api/parking-spots/search")
                         .param("covered", "true")
                         .param("minPrice", "10.0")
                         .param("maxPrice", "50.0"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(12));
+    }
+
+    @Test
+    void search_ShouldTakeTheEtagFromTheCachedResultsVersion() throws Exception {
+        DataVersion cachedVersion = new DataVersion(4L, LocalDateTime.of(2030, 1, 1, 12, 0));
+        when(searchCache.get(any(), any())).thenReturn(new ParkingSearchCache.Results(cachedVersion, List.of()));
+        String etag = cachedVersion.etag("parking-search", null, null, null, null, null, null, null, null, null);
+
+        mockMvc.perform(get("/api/parking-spots/search"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        mockMvc.perform(get("/api/parking-spots/search").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // A hit never reads a fresh version that could be newer than the cached body
+        verify(parkingService, never()).searchVersion(anyBoolean());
+    }
+
+    @Test
+    void search_WithSortAndLimit_ShouldReturnTheTopMatchesInOrder() throws Exception {
+        List<ParkingResponse> matches = new ArrayList<>();
+        double[] prices = {30.0, 10.0, 20.0};
+        for (int i = 0; i < prices.length; i++) {
+            Parking p = new Parking();
+            setEntityId(p, 20L + i);
+            p.setPricePerHour(prices[i]);
+            p.setAvailabilityType(AvailabilityType.SPECIFIC);
+            matches.add(ParkingResponse.from(p));
+        }
+        when(searchCache.get(eq(ParkingSearchCache.SearchKey.of(null, null, null, null, null)
+                .top(ParkingRanker.SortBy.PRICE, 2)), any()))
+                .thenReturn(new ParkingSearchCache.Results(new DataVersion(3L, LocalDateTime.now()), matches));
+
+        mockMvc.perform(get("/api/parking-spots/search")
+                        .param("sort", "price")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(21))
+                .andExpect(jsonPath("$[1].id").value(22));
+
+        mockMvc.perform(get("/api/parking-spots/search").param("sort", "distance"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importSpots_WithCsvBody_ShouldUseCsvFormat() throws Exception {
+        Long userId = 100L;
+        TestingAuthenticationToken auth = new TestingAuthenticationToken(userId, "PWD", "ROLE_OWNER");
+
+        ParkingImportResponse result = new ParkingImportResponse();
+        result.setTotalRows(1);
+        result.setImported(1);
+
+        when(parkingImportService.importSpots(eq(userId), any(), eq(ParkingImportService.Format.CSV)))
+                .thenReturn(result);
+
+        mockMvc.perform(post("/api/parking-spots/import")
+                        .contentType("text/csv")
+                        .content("location,pricePerHour\nTel Aviv,20\n")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    void tile_ShouldOnlyBeCacheableByTheClient() throws Exception {
+        when(tileService.tile(14, 9786, 6647)).thenReturn(new ParkingTileService.Tile(
+                List.of(new SpotLocation(1L, 32.08, 34.78, 12.0)), "\"t1\""));
+        when(tileService.maxAge()).thenReturn(Duration.ofSeconds(30));
+
+        mockMvc.perform(get("/api/parking-spots/tiles/14/9786/6647"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30, private"))
+                .andExpect(jsonPath("$.spots.length()").value(1));
+    }
+
+    @Test
+    void calendar_WithBadDaysOrSlotMinutes_ShouldReturn400BeforeTheEtagCheck() throws Exception {
+        mockMvc.perform(get("/api/parking-spots/7/calendar").param("days", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/parking-spots/7/calendar").param("days", "63"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/parking-spots/7/calendar").param("slotMinutes", "7"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingRepository, never()).versionForParking(any());
+    }
+
+    @Test
+    void calendar_ForUnknownSpot_ShouldReturn404() throws Exception {
+        when(bookingRepository.versionForParking(99L)).thenReturn(new DataVersion(0L, null));
+        when(parkingRepository.versionForSpot(99L)).thenReturn(new DataVersion(0L, null));
+        when(parkingRepository.findWithAvailabilityByIdIn(List.of(99L))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/parking-spots/99/calendar"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void calendar_WithMatchingETag_ShouldReturn304WithoutBuildingTheCalendar() throws Exception {
+        Parking p = new Parking();
+        setEntityId(p, 7L);
+        p.setActive(false); // nothing bookable, so no schedule or booking lookups
+        when(bookingRepository.versionForParking(7L)).thenReturn(new DataVersion(2L, LocalDateTime.of(2030, 1, 1, 8, 0)));
+        when(parkingRepository.versionForSpot(7L)).thenReturn(new DataVersion(1L, LocalDateTime.of(2030, 1, 1, 7, 0)));
+        when(parkingRepository.findWithAvailabilityByIdIn(List.of(7L))).thenReturn(List.of(p));
+
+        String etag = mockMvc.perform(get("/api/parking-spots/7/calendar")
+                        .param("from", "2030-01-01").param("days", "1").param("slotMinutes", "60"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(jsonPath("$.start").value("2030-01-01T00:00:00"))
+                .andExpect(jsonPath("$.slots").value(24))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/parking-spots/7/calendar")
+                        .param("from", LocalDate.of(2030, 1, 1).toString()).param("days", "1").param("slotMinutes", "60")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(parkingRepository, times(1)).findWithAvailabilityByIdIn(List.of(7L));
     }
-}
\ No newline at end of file
+}
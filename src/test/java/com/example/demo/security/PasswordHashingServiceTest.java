@@ -0,0 +1,84 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldRunOnThePool() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), registry, 2, 4, Duration.ofSeconds(5));
+
+        String hash = service.encode("Password1!");
+
+        assertTrue(service.matches("Password1!", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertEquals(3, registry.get("easypark.password.hash").timers().stream().mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void needsRehash_ShouldDetectHashesBelowConfiguredCost() {
+        String weak = new BCryptPasswordEncoder(4).encode("Password1!");
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), registry, 1, 1, Duration.ofSeconds(5));
+
+        assertTrue(service.needsRehash(weak));
+        assertFalse(service.needsRehash(service.encode("Password1!")));
+    }
+
+    @Test
+    void encode_ShouldRejectFast_WhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BCryptPasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        service = new PasswordHashingService(slow, registry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        // Wait until the second task sits in the queue
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("executor.queued").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.encode("c"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        assertEquals(1.0, registry.get("easypark.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-request cost of the rate-limit check (route match + bucket update) under contention.
+ * Opt-in: {@code mvn test -Dtest=RateLimitBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RateLimitBenchmarkTest {
+
+    // One thread per core: with more, per-thread wall time would include time spent descheduled
+    private static final int THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private static final int CALLS_PER_THREAD = 2_000_000;
+    private static final int CLIENTS = 10_000;
+
+    @Test
+    void checkShouldCostLessThanAMicrosecond() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true,
+                "POST /api/auth/login=10/1m;GET /api/parking-spots/search=1000000/1s", 100_000, 64);
+
+        // One request object per client, reused: we measure the limiter, not request construction
+        MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            requests[i] = new MockHttpServletRequest("GET", "/api/parking-spots/search");
+            requests[i].setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        run(filter, requests, 200_000); // warm-up
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> run(filter, requests, CALLS_PER_THREAD));
+        }
+        long totalNanos = 0;
+        for (Future<Long> f : pool.invokeAll(tasks)) {
+            totalNanos += f.get();
+        }
+        pool.shutdown();
+
+        double nsPerCall = (double) totalNanos / (THREADS * CALLS_PER_THREAD);
+        System.out.printf("rate limit check: %.1f ns per request (%d threads, %d clients)%n", nsPerCall, THREADS, CLIENTS);
+        assertTrue(nsPerCall < 1000, "expected under 1us per request but was " + nsPerCall + "ns");
+    }
+
+    private long run(RateLimitFilter filter, MockHttpServletRequest[] requests, int calls) {
+        long started = System.nanoTime();
+        long limited = 0;
+        for (int i = 0; i < calls; i++) {
+            limited += filter.check(requests[(i * 31) % requests.length]);
+        }
+        long took = System.nanoTime() - started;
+        return limited == Long.MIN_VALUE ? 0 : took; // keep the result live
+    }
+}
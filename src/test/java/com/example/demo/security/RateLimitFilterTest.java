@@ -0,0 +1,88 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse call(RateLimitFilter filter, String method, String path, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void doFilter_ShouldReturn429WithRetryAfterOnceBurstIsUsed() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true, "POST /api/auth/login=2/1m", 1000, 4);
+
+        assertEquals(200, call(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, call(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus());
+        MockHttpServletResponse limited = call(filter, "POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("30", limited.getHeader("Retry-After"));
+        // Other clients and other routes are unaffected
+        assertEquals(200, call(filter, "POST", "/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(200, call(filter, "POST", "/api/auth/register", "10.0.0.1").getStatus());
+        assertEquals(200, call(filter, "GET", "/api/auth/login", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldKeyAuthenticatedRequestsByUserId() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(true, "GET /api/parking-spots/**=1/10s", 1000, 4);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(5L, null, List.of()));
+        assertEquals(200, call(filter, "GET", "/api/parking-spots/search", "10.0.0.1").getStatus());
+        // Same user from another address is still limited
+        assertEquals(429, call(filter, "GET", "/api/parking-spots/7/busy", "10.0.0.9").getStatus());
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(6L, null, List.of()));
+        assertEquals(200, call(filter, "GET", "/api/parking-spots/search", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void limiter_ShouldRefillOverTimeAndEvictIdleKeys() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2).toNanos(), 16, 1, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(Duration.ofSeconds(1).toNanos(), limiter.tryAcquire("a"));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        // Fill the stripe; "a" refills in the meantime and is evicted to make room
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        for (int i = 0; i < 16; i++) {
+            limiter.tryAcquire("k" + i);
+        }
+        assertTrue(limiter.trackedKeys() <= 16);
+    }
+
+    @Test
+    void parseRoutes_ShouldRejectMalformedSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRoutes("/api/auth/login=5/1m", 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRoutes("POST /api/auth/login=5", 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.parseRoutes("POST /api/auth/login=x/1m", 10, 1));
+        assertEquals(2, RateLimitFilter.parseRoutes("POST /a=1/1s; GET /b/**=3/1h", 10, 1).size());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    @Test
+    void revokedTokenIdIsRejectedAndOthersAreNot() {
+        TokenRevocationList list = new TokenRevocationList(1000, 0.001);
+        String revoked = UUID.randomUUID().toString();
+        list.revokeTokenId(revoked);
+
+        assertTrue(list.isRevoked(revoked, 1L, 100));
+        assertFalse(list.isRevoked(UUID.randomUUID().toString(), 1L, 100));
+        assertFalse(list.isRevoked(null, 1L, 100));
+    }
+
+    @Test
+    void userCutoffRejectsOnlyThatUsersOlderTokens() {
+        TokenRevocationList list = new TokenRevocationList(1000, 0.001);
+        list.revokeIssuedBefore(7L, 1_000);
+        list.revokeIssuedBefore(7L, 900); // an older cutoff never lowers the current one
+
+        assertTrue(list.isRevoked("a", 7L, 999));
+        assertFalse(list.isRevoked("a", 7L, 1_000)); // minted in the cutoff second (replacement token)
+        assertFalse(list.isRevoked("a", 8L, 999));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndAboutTheConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("in-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("in-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("out-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
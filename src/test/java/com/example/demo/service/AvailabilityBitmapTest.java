@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import com.example.demo.service.FreeWindowFinder.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityBitmapTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final Duration QUARTER = Duration.ofMinutes(15);
+    private static final int MONTH = 31 * 96;
+
+    private static Interval between(int fromMinute, int toMinute) {
+        return new Interval(DAY.plusMinutes(fromMinute), DAY.plusMinutes(toMinute));
+    }
+
+    @Test
+    void build_ShouldOpenWholeCellsInsideSlotsAndCloseEveryCellABookingTouches() {
+        // Open 08:10-12:00, booked 09:20-10:00
+        BitSet bits = AvailabilityBitmap.build(List.of(between(490, 720)), List.of(between(560, 600)), DAY, QUARTER, 96);
+
+        assertFalse(bits.get(32));          // 08:00 cell starts before the slot
+        assertTrue(bits.get(33));           // 08:15
+        assertTrue(bits.get(36));           // 09:00
+        assertFalse(bits.get(37));          // 09:15 cell overlaps the booking
+        assertFalse(bits.get(39));
+        assertTrue(bits.get(40));           // 10:00
+        assertEquals(47, bits.previousSetBit(95));
+    }
+
+    @Test
+    void encode_ShouldUseRunsForRegularSchedulesAndRawBitsWhenFragmented() {
+        BitSet weekdays = new BitSet(MONTH);
+        for (int day = 0; day < 31; day++) {
+            weekdays.set(day * 96 + 32, day * 96 + 72); // 08:00-18:00
+        }
+        AvailabilityBitmap.Encoded runs = AvailabilityBitmap.encode(weekdays, MONTH);
+        assertEquals(AvailabilityBitmap.RUNS, runs.encoding());
+        assertTrue(runs.data().length < 100, "month of daily slots should be tiny: " + runs.data().length);
+        assertEquals(weekdays, AvailabilityBitmap.decode(runs, MONTH));
+
+        BitSet checkerboard = new BitSet(MONTH);
+        for (int i = 0; i < MONTH; i += 2) {
+            checkerboard.set(i);
+        }
+        AvailabilityBitmap.Encoded raw = AvailabilityBitmap.encode(checkerboard, MONTH);
+        assertEquals(AvailabilityBitmap.BITMAP, raw.encoding());
+        assertEquals(MONTH / 8, raw.data().length);
+        assertEquals(checkerboard, AvailabilityBitmap.decode(raw, MONTH));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.CreateBookingRequest;
+import com.example.demo.dto.UpdateBookingStatusRequest;
 import com.example.demo.model.*;
 import com.example.demo.repository.BookingRepository;
 import com.example.demo.repository.ParkingRepository;
@@ -11,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -38,6 +41,9 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -175,4 +181,82 @@ class BookingServiceTest {
         // Act & Assert (driverId == ownerId)
         assertThrows(ResponseStatusException.class, () -> bookingService.create(ownerId, req));
     }
-}
\ No newline at end of file
+
+    @Test
+    void changesMine_ShouldReturnOnePageAndResumeAfterItsLastRow() {
+        Booking first = new Booking();
+        setEntityId(first, 10L);
+        first.setParking(parking);
+        first.prePersist();
+        Booking second = new Booking();
+        setEntityId(second, 11L);
+        second.setParking(parking);
+        second.prePersist();
+
+        // limit + 1 rows come back, so there is another page
+        when(bookingRepository.findMineChangedAfter(eq(driverId), eq(ChangeCursor.START.updatedAt()), eq(0L),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+        when(userRepository.findById(ownerId)).thenReturn(Optional.empty());
+
+        BookingService.ChangePage page = bookingService.changesMine(driverId, null, 1);
+
+        assertEquals(List.of(first), page.bookings());
+        assertTrue(page.hasMore());
+        assertEquals(new ChangeCursor(first.getUpdatedAt(), 10L), ChangeCursor.decode(page.cursor()));
+
+        when(bookingRepository.findMineChangedAfter(eq(driverId), eq(first.getUpdatedAt()), eq(10L),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        BookingService.ChangePage next = bookingService.changesMine(driverId, page.cursor(), 1);
+
+        assertTrue(next.bookings().isEmpty());
+        assertFalse(next.hasMore());
+        assertEquals(page.cursor(), next.cursor());
+    }
+
+    @Test
+    void changesMine_ShouldRejectAMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> bookingService.changesMine(driverId, "not-a-cursor", 50));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private Booking pendingBooking(Long id) {
+        Booking booking = new Booking();
+        setEntityId(booking, id);
+        booking.setParking(parking);
+        booking.setDriver(driver);
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    private UpdateBookingStatusRequest statusRequest(String status) {
+        UpdateBookingStatusRequest req = new UpdateBookingStatusRequest();
+        req.setStatus(status);
+        return req;
+    }
+
+    @Test
+    void updateStatus_ShouldApproveOnlyWhileStillPending() {
+        when(bookingRepository.findById(555L)).thenReturn(Optional.of(pendingBooking(555L)));
+        when(bookingRepository.decidePending(eq(555L), eq(BookingStatus.APPROVED), any())).thenReturn(1);
+
+        Booking result = bookingService.updateStatus(ownerId, 555L, statusRequest("APPROVED"));
+
+        assertEquals(BookingStatus.APPROVED, result.getStatus());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void updateStatus_AfterTheExpiryJobReleasedTheBooking_ShouldReturn409() {
+        when(bookingRepository.findById(555L)).thenReturn(Optional.of(pendingBooking(555L)));
+        // Expired between the read and the write
+        when(bookingRepository.decidePending(eq(555L), eq(BookingStatus.APPROVED), any())).thenReturn(0);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> bookingService.updateStatus(ownerId, 555L, statusRequest("APPROVED")));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(events);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BookingExportRow;
+import com.example.demo.dto.PaymentExportRow;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.PaymentStatus;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(bookingRepository, paymentRepository, transactionManager, mapper);
+    }
+
+    @Test
+    void exportBookingsForOwner_Csv_ShouldWriteHeaderRowsAndCloseCursor() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<BookingExportRow> rows = Stream.of(
+                new BookingExportRow(1L, 10L, "Herzl 1, Tel Aviv", 5L, start, start.plusHours(2),
+                        BookingStatus.APPROVED, 40.0, start.minusDays(1)),
+                new BookingExportRow(2L, 10L, "=HYPERLINK(\"x\")", 6L, start, start.plusHours(1),
+                        BookingStatus.PENDING, 20.0, start.minusDays(1))
+        ).onClose(() -> closed.set(true));
+        when(bookingRepository.streamForOwner(9L)).thenReturn(rows);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBookingsForOwner(9L, ExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("bookingId,parkingId,parkingLocation,driverId,startTime,endTime,status,totalPrice,createdAt", lines[0]);
+        assertEquals("1,10,\"Herzl 1, Tel Aviv\",5,2030-01-01T08:00,2030-01-01T10:00,APPROVED,40.0,2029-12-31T08:00", lines[1]);
+        assertTrue(lines[2].startsWith("2,10,\"'=HYPERLINK(\"\"x\"\")\",6,"));
+        assertTrue(closed.get(), "cursor stream must be closed");
+    }
+
+    @Test
+    void exportPaymentsForDriver_Ndjson_ShouldWriteOneObjectPerLine() {
+        when(paymentRepository.streamMine(5L)).thenReturn(Stream.of(
+                new PaymentExportRow(3L, 1L, 5L, 9L, 40.0, "ILS", "BIT", PaymentStatus.PAID, start, start)
+        ));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportPaymentsForDriver(5L, ExportService.Format.NDJSON, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        assertEquals(1, body.lines().count());
+        assertTrue(body.contains("\"paymentId\":3"));
+        assertTrue(body.contains("\"status\":\"PAID\""));
+        assertTrue(body.contains("\"paidAt\":\"2030-01-01T08:00:00\""));
+    }
+
+    @Test
+    void formatParse_ShouldRejectUnknownFormats() {
+        assertEquals(ExportService.Format.NDJSON, ExportService.Format.parse("ndjson"));
+        assertThrows(ResponseStatusException.class, () -> ExportService.Format.parse("xlsx"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AvailabilityType;
+import com.example.demo.model.Parking;
+import com.example.demo.model.ParkingAvailability;
+import com.example.demo.service.FreeWindowFinder.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeWindowFinderTest {
+
+    // 2030-01-06 is a Sunday
+    private static final LocalDateTime SUNDAY = LocalDateTime.of(2030, 1, 6, 0, 0);
+
+    private static Interval at(int day, int fromHour, int toHour) {
+        return new Interval(SUNDAY.plusDays(day).plusHours(fromHour), SUNDAY.plusDays(day).plusHours(toHour));
+    }
+
+    private static Parking recurring(int dayOfWeek, int fromHour, int toHour) {
+        ParkingAvailability slot = new ParkingAvailability();
+        slot.setDayOfWeek(dayOfWeek);
+        slot.setStartTime(LocalTime.of(fromHour, 0));
+        slot.setEndTime(LocalTime.of(toHour, 0));
+        Parking p = new Parking();
+        p.setAvailabilityType(AvailabilityType.RECURRING);
+        p.getAvailabilityList().add(slot);
+        return p;
+    }
+
+    @Test
+    void slots_ShouldExpandRecurringDaysAndClipToTheHorizon() {
+        Parking mondays = recurring(1, 8, 18);
+
+        List<Interval> slots = FreeWindowFinder.slots(mondays, SUNDAY.plusDays(1).plusHours(12), SUNDAY.plusDays(14));
+
+        assertEquals(List.of(at(1, 12, 18), at(8, 8, 18)), slots);
+    }
+
+    @Test
+    void gaps_ShouldSkipMergedBookingsAndReturnTheEarliestGapsThatFit() {
+        List<Interval> slots = List.of(at(1, 8, 18), at(8, 8, 18));
+        List<Interval> busy = FreeWindowFinder.mergeBusy(List.of(
+                at(1, 9, 11), at(1, 10, 12), // overlapping: one run 9-12
+                at(1, 13, 16),
+                at(8, 8, 10)));
+
+        assertEquals(List.of(at(1, 9, 12), at(1, 13, 16), at(8, 8, 10)), busy);
+        // 8-9 and 12-13 are too short for 2h; 16-18 fits
+        assertEquals(List.of(at(1, 16, 18), at(8, 10, 18)),
+                FreeWindowFinder.gaps(slots, busy, Duration.ofHours(2), 5));
+        assertEquals(List.of(at(1, 8, 9), at(1, 12, 13)),
+                FreeWindowFinder.gaps(slots, busy, Duration.ofHours(1), 2));
+        assertTrue(FreeWindowFinder.gaps(slots, busy, Duration.ofHours(9), 5).isEmpty());
+    }
+}
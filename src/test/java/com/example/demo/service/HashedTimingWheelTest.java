@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void advance_ShouldFireIdsOnceTheirDeadlineIsReached() {
+        HashedTimingWheel wheel = new HashedTimingWheel(8, 100);
+        wheel.schedule(1L, 103);
+        wheel.schedule(2L, 105);
+
+        assertEquals(List.of(), wheel.advance(102));
+        assertEquals(List.of(1L), wheel.advance(104));
+        assertEquals(List.of(2L), wheel.advance(105));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldKeepDeadlinesBeyondOneTurnForLaterRounds() {
+        HashedTimingWheel wheel = new HashedTimingWheel(4, 0);
+        wheel.schedule(1L, 2);
+        wheel.schedule(2L, 6); // same bucket, one turn later
+
+        assertEquals(List.of(1L), wheel.advance(2));
+        assertEquals(List.of(), wheel.advance(5));
+        assertEquals(List.of(2L), wheel.advance(6));
+    }
+
+    @Test
+    void advance_ShouldCatchUpAfterAPauseLongerThanTheWheel() {
+        HashedTimingWheel wheel = new HashedTimingWheel(4, 0);
+        wheel.schedule(1L, 1);
+        wheel.schedule(2L, 3);
+        wheel.schedule(3L, 9);
+        wheel.schedule(4L, 50);
+
+        List<Long> due = wheel.advance(20);
+
+        assertEquals(3, due.size());
+        assertTrue(due.containsAll(List.of(1L, 2L, 3L)));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(4L), wheel.advance(50));
+    }
+
+    @Test
+    void schedule_ShouldReplaceAnEarlierDeadlineAndCancelShouldRemoveIt() {
+        HashedTimingWheel wheel = new HashedTimingWheel(8, 0);
+        wheel.schedule(1L, 2);
+        wheel.schedule(1L, 5);
+        wheel.schedule(2L, 3);
+        wheel.cancel(2L);
+
+        assertEquals(List.of(), wheel.advance(4));
+        assertEquals(List.of(1L), wheel.advance(5));
+    }
+
+    @Test
+    void schedule_ShouldFirePastDeadlinesOnTheNextAdvance() {
+        HashedTimingWheel wheel = new HashedTimingWheel(8, 10);
+        wheel.schedule(1L, 3);
+
+        assertEquals(List.of(1L), wheel.advance(11));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexRebuilderTest {
+
+    private final List<Long> refreshed = new ArrayList<>();
+    private int loads;
+    private IndexRebuilder rebuilder;
+
+    private IndexRebuilder rebuilder(IndexRebuilder.Load load) {
+        return new IndexRebuilder(LoggerFactory.getLogger(IndexRebuilderTest.class), "test_index", load, refreshed::add);
+    }
+
+    @Test
+    void rebuild_ShouldReReadSpotsChangedWhileLoadingAndSkipOverlappingRebuilds() {
+        rebuilder = rebuilder(() -> {
+            loads++;
+            assertTrue(rebuilder.recordIfRebuilding(7L));
+            rebuilder.rebuild(); // one already running
+            return "spots=0";
+        });
+
+        assertFalse(rebuilder.recordIfRebuilding(1L));
+        rebuilder.rebuild();
+
+        assertEquals(1, loads);
+        assertEquals(List.of(7L), refreshed);
+        assertFalse(rebuilder.recordIfRebuilding(8L));
+    }
+
+    @Test
+    void rebuild_ThatFails_ShouldStillReReadTheSpotsItMissed() {
+        rebuilder = rebuilder(() -> {
+            rebuilder.recordIfRebuilding(7L);
+            throw new IllegalStateException("database down");
+        });
+
+        rebuilder.rebuild();
+
+        assertEquals(List.of(7L), refreshed);
+        assertFalse(rebuilder.recordIfRebuilding(8L));
+    }
+
+    @Test
+    void update_ShouldSwallowAFailedRefresh() {
+        rebuilder = rebuilder(() -> "spots=0");
+        assertDoesNotThrow(() -> rebuilder.update(7L, id -> {
+            throw new IllegalStateException("database down");
+        }));
+    }
+}
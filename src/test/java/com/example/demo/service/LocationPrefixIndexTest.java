@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LocationSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationPrefixIndexTest {
+
+    private final LocationPrefixIndex index = new LocationPrefixIndex();
+
+    private static LocationSuggestion spot(long id, String location) {
+        return new LocationSuggestion(id, location, null, null);
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.complete(query, limit).stream().map(LocationSuggestion::getParkingId).toList();
+    }
+
+    @Test
+    void complete_ShouldMatchEveryTypedWordAsAPrefixInHebrewAndLatin() {
+        index.upsert(spot(1L, "Rothschild Blvd 12, Tel-Aviv"));
+        index.upsert(spot(2L, "שדרות רוטשילד 40, תל אביב"));
+        index.upsert(spot(3L, "Herzl St 5, Haifa"));
+        index.upsert(spot(4L, "רחוב הרצל, ירושלים"));
+
+        assertEquals(List.of(1L), ids("tel av", 10));
+        assertEquals(List.of(1L), ids("ROTHS  tel", 10));
+        assertEquals(List.of(2L), ids("תל אבי", 10));
+        assertEquals(List.of(4L), ids("ירושלים", 10));   // final mem matches
+        assertEquals(List.of(4L), ids("הֶרְצֵל", 10));    // niqqud ignored
+        assertEquals(List.of(3L), ids("herzl", 10));
+        assertTrue(ids("haifa tel", 10).isEmpty());
+        assertTrue(ids("  ,", 10).isEmpty());
+    }
+
+    @Test
+    void complete_ShouldStopAtTheLimitAndForgetRemovedOrMovedSpots() {
+        index.upsert(spot(1L, "Allenby 1"));
+        index.upsert(spot(2L, "Allenby 20"));
+        index.upsert(spot(3L, "Alon St"));
+
+        assertEquals(List.of(1L, 2L), ids("al", 2));
+
+        index.remove(1L);
+        index.upsert(spot(3L, "Dizengoff 50")); // location edited
+        assertEquals(List.of(2L), ids("al", 10));
+        assertEquals(List.of(3L), ids("diz", 10));
+        assertEquals(2, index.size());
+    }
+}
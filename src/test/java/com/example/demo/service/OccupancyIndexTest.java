@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AvailabilityType;
+import com.example.demo.model.ParkingAvailability;
+import com.example.demo.service.FreeWindowFinder.Interval;
+import com.example.demo.service.OccupancyIndex.SpotSchedule;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyIndexTest {
+
+    // 2030-01-07 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private static SpotSchedule weekdays(int fromHour, int toHour) {
+        List<ParkingAvailability> slots = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            ParkingAvailability slot = new ParkingAvailability();
+            slot.setDayOfWeek(day);
+            slot.setStartTime(LocalTime.of(fromHour, 0));
+            slot.setEndTime(LocalTime.of(toHour, 0));
+            slots.add(slot);
+        }
+        return new SpotSchedule(AvailabilityType.RECURRING, slots);
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return MONDAY.plusDays(day).atTime(hour, minute);
+    }
+
+    // Mon-Fri 08:00-17:00 of the first two weeks
+    private static List<Interval> commute() {
+        List<Interval> windows = new ArrayList<>();
+        for (int day = 0; day < 12; day++) {
+            if (day % 7 < 5) {
+                windows.add(new Interval(at(day, 8, 0), at(day, 17, 0)));
+            }
+        }
+        return windows;
+    }
+
+    private static List<Integer> ids(RoaringBitmap bits) {
+        List<Integer> out = new ArrayList<>();
+        bits.forEach((int id) -> out.add(id));
+        return out;
+    }
+
+    @Test
+    void free_ShouldDropSpotsBookedInAnyWindowOrNotOpenForIt() {
+        OccupancyIndex index = new OccupancyIndex(MONDAY, 30);
+        index.putSpot(1, weekdays(7, 18));
+        index.putSpot(2, weekdays(7, 18));
+        index.putSpot(3, weekdays(9, 18));   // opens too late
+        index.putSpot(4, weekdays(7, 18));
+        index.addBusy(2, new Interval(at(9, 16, 45), at(9, 17, 30)));  // second Wednesday afternoon
+        index.addBusy(4, new Interval(at(5, 9, 0), at(5, 12, 0)));     // Saturday, outside the windows
+        index.addBusy(4, new Interval(at(1, 17, 0), at(1, 18, 0)));    // right after a window
+
+        assertEquals(List.of(1, 4), ids(index.free(null, commute())));
+        assertEquals(List.of(4), ids(index.free(RoaringBitmap.bitmapOf(2, 4, 99), commute())));
+    }
+
+    @Test
+    void replaceBusy_ShouldClearCancelledBookingsAndRejectWindowsOutsideTheIndex() {
+        OccupancyIndex index = new OccupancyIndex(MONDAY, 30);
+        index.putSpot(1, weekdays(7, 18));
+        index.addBusy(1, new Interval(at(2, 10, 0), at(2, 11, 0)));
+        assertTrue(index.free(null, commute()).isEmpty());
+
+        index.replaceBusy(1, at(2, 0, 0), at(3, 0, 0), List.of()); // the booking was cancelled
+        assertEquals(List.of(1), ids(index.free(null, commute())));
+
+        index.removeSpot(1);
+        assertTrue(index.free(null, commute()).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> index.free(null, List.of(new Interval(at(40, 8, 0), at(40, 17, 0)))));
+    }
+}
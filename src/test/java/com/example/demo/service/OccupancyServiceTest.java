@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CommuterSearchRequest;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OccupancyServiceTest {
+
+    private final OccupancyService service =
+            new OccupancyService(mock(ParkingRepository.class), mock(BookingRepository.class), 62, 100);
+
+    @Test
+    void freeSpots_WithASpanBeyondTheHorizon_ShouldReturn400BeforeBuildingWindows() {
+        CommuterSearchRequest req = new CommuterSearchRequest();
+        req.setFromDate(LocalDate.of(1, 1, 1));
+        req.setToDate(LocalDate.of(9999, 12, 31));
+        req.setDaysOfWeek(EnumSet.allOf(DayOfWeek.class));
+        req.setStartTime(LocalTime.of(8, 0));
+        req.setEndTime(LocalTime.of(17, 0));
+
+        ResponseStatusException ex = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> assertThrows(ResponseStatusException.class, () -> service.freeSpots(req)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertTrue(ex.getReason().contains("63 days"));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ParkingImportResponse;
+import com.example.demo.model.AvailabilityType;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.ParkingRatingRepository;
+import com.example.demo.repository.ParkingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParkingImportServiceTest {
+
+    @Mock
+    private ParkingRepository parkingRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ParkingRatingRepository parkingRatingRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private ParkingImportService importService;
+
+    private final Long ownerId = 7L;
+
+    @BeforeEach
+    void setUp() {
+        ParkingService parkingService = new ParkingService(parkingRepository, bookingRepository, parkingRatingRepository, events);
+        importService = new ParkingImportService(
+                parkingService,
+                parkingRepository,
+                entityManager,
+                transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                events
+        );
+    }
+
+    private InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNdjson_ShouldSaveValidRowsAndReportInvalidOnes() throws Exception {
+        String ndjson = """
+                {"location":"Tel Aviv","pricePerHour":20,"covered":true,"availabilityType":"RECURRING","recurringSchedule":[{"dayOfWeek":1,"start":"08:00","end":"17:00"}]}
+                {"location":"","pricePerHour":10}
+                not json
+
+                {"location":"Haifa","pricePerHour":15,"availabilityType":"WEEKLY"}
+                {"location":"Beer Sheva","pricePerHour":12}
+                """;
+
+        ParkingImportResponse result = importService.importSpots(ownerId, body(ndjson), ParkingImportService.Format.NDJSON);
+
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 3L, 5L), result.getErrors().stream().map(ParkingImportResponse.RowError::getLine).toList());
+        assertEquals("Invalid availability type", result.getErrors().get(2).getMessage());
+
+        ArgumentCaptor<List<Parking>> saved = ArgumentCaptor.forClass(List.class);
+        verify(parkingRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        Parking first = saved.getValue().get(0);
+        assertEquals(ownerId, first.getOwnerId());
+        assertEquals(AvailabilityType.RECURRING, first.getAvailabilityType());
+        assertEquals(1, first.getAvailabilityList().size());
+        verify(entityManager).clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_ShouldParseQuotedCellsAndSchedules() throws Exception {
+        String csv = """
+                location,lat,lng,pricePerHour,covered,availabilityType,specificAvailability
+                "Herzl 1, Tel Aviv",32.08,34.78,25,true,SPECIFIC,2030-01-01T08:00/2030-01-01T12:00;2030-01-02T08:00/2030-01-02T12:00
+                Dizengoff,abc,34.7,10,false,,
+                """;
+
+        ParkingImportResponse result = importService.importSpots(ownerId, body(csv), ParkingImportService.Format.CSV);
+
+        assertEquals(2, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals("lat must be a number", result.getErrors().get(0).getMessage());
+
+        ArgumentCaptor<List<Parking>> saved = ArgumentCaptor.forClass(List.class);
+        verify(parkingRepository).saveAll(saved.capture());
+        Parking p = saved.getValue().get(0);
+        assertEquals("Herzl 1, Tel Aviv", p.getLocation());
+        assertEquals(2, p.getAvailabilityList().size());
+        assertTrue(p.isCovered());
+    }
+
+    @Test
+    void importSpots_ShouldWriteInBatchesAndIsolateRowsTheDatabaseRejects() throws Exception {
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+
+        // First batch of two fails as a whole; the row-by-row retry only rejects the long location.
+        when(parkingRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("too long"))
+                .thenReturn(List.of())
+                .thenThrow(new DataIntegrityViolationException("too long"))
+                .thenReturn(List.of());
+
+        String ndjson = """
+                {"location":"A","pricePerHour":1}
+                {"location":"%s","pricePerHour":1}
+                {"location":"C","pricePerHour":1}
+                """.formatted("x".repeat(300));
+
+        ParkingImportResponse result = importService.importSpots(ownerId, body(ndjson), ParkingImportService.Format.NDJSON);
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        verify(parkingRepository, times(4)).saveAll(anyList());
+    }
+
+    @Test
+    void splitCsv_ShouldHandleEscapedQuotes() {
+        assertEquals(List.of("a", "say \"hi\", ok", ""), ParkingImportService.splitCsv("a,\"say \"\"hi\"\", ok\","));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ParkingResponse;
+import com.example.demo.model.Parking;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingRankerTest {
+
+    private final ParkingRanker ranker = new ParkingRanker("distance:0.5;price:0.3;rating:0.2", 5, 20, 50);
+
+    private ParkingResponse spot(long id, Double lat, Double lng, double price, double rating) {
+        Parking p = new Parking();
+        try {
+            Field field = Parking.class.getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(p, id);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set ID for testing", e);
+        }
+        p.setLat(lat);
+        p.setLng(lng);
+        p.setPricePerHour(price);
+        p.setAverageRating(rating);
+        return ParkingResponse.from(p);
+    }
+
+    @Test
+    void topK_ShouldMatchAFullSortOnRandomInput() {
+        Random random = new Random(42);
+        List<ParkingResponse> spots = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            spots.add(spot(id, null, null, random.nextInt(40), 0)); // many equal prices: ties go to the lower id
+        }
+
+        List<ParkingResponse> expected = spots.stream()
+                .sorted((a, b) -> a.getPricePerHour() != b.getPricePerHour()
+                        ? Double.compare(a.getPricePerHour(), b.getPricePerHour())
+                        : Long.compare(a.getId(), b.getId()))
+                .limit(25)
+                .toList();
+
+        assertEquals(expected, ranker.rank(spots, ParkingRanker.SortBy.PRICE, null, null, 25));
+    }
+
+    @Test
+    void rank_ShouldOrderByDistanceAndBlend() {
+        // Origin: Tel Aviv center. Near is ~1 km away, far ~60 km (Haifa area), unknown has no coordinates.
+        ParkingResponse near = spot(1, 32.0853 + 0.009, 34.7818, 30, 3.0);
+        ParkingResponse far = spot(2, 32.7940, 34.9896, 5, 5.0);
+        ParkingResponse unknown = spot(3, null, null, 1, 5.0);
+        List<ParkingResponse> spots = List.of(unknown, far, near);
+
+        assertEquals(List.of(near, far, unknown),
+                ranker.rank(spots, ParkingRanker.SortBy.DISTANCE, 32.0853, 34.7818, null));
+        assertEquals(1.0, ParkingRanker.distanceKm(near, 32.0853, 34.7818), 0.05);
+
+        // Blend: near costs more and is rated lower, but far is a long drive away
+        assertEquals(List.of(near, far), ranker.rank(spots, ParkingRanker.SortBy.BLEND, 32.0853, 34.7818, 2));
+        assertEquals(List.of(far, unknown, near), ranker.rank(spots, ParkingRanker.SortBy.RATING, null, null, 3));
+    }
+
+    @Test
+    void rank_ShouldRejectOutOfRangeLimitsAndMissingOrigin() {
+        assertThrows(ResponseStatusException.class, () -> ranker.rank(List.of(), null, null, null, 0));
+        assertThrows(ResponseStatusException.class, () -> ranker.rank(List.of(), null, null, null, 51));
+        assertThrows(ResponseStatusException.class, () -> ranker.rank(List.of(), ParkingRanker.SortBy.BLEND, 32.0, null, 5));
+    }
+}
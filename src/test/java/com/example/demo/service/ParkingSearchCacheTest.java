@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DataVersion;
+import com.example.demo.dto.ParkingResponse;
+import com.example.demo.service.ParkingSearchCache.Results;
+import com.example.demo.service.ParkingSearchCache.SearchKey;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingSearchCacheTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ParkingSearchCache cache =
+            new ParkingSearchCache(new SimpleMeterRegistry(), true, Duration.ofSeconds(30), 100, clock::get);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Results load() {
+        int n = loads.incrementAndGet();
+        return new Results(new DataVersion((long) n, NOON), List.of(new ParkingResponse()));
+    }
+
+    @Test
+    void get_ShouldServeRepeatsFromCacheUntilTheTtlPasses() {
+        SearchKey key = SearchKey.of(true, null, 30.0, null, null);
+
+        Results first = cache.get(key, this::load);
+        assertSame(first, cache.get(SearchKey.of(true, null, 30.0, NOON, null), this::load)); // half-open window ignored
+        assertEquals(1, loads.get());
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.get(key, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void bookingChange_ShouldOnlyEvictOverlappingWindowsWhoseFiltersMatchTheSpot() {
+        SearchKey overlapping = SearchKey.of(null, null, null, NOON, NOON.plusHours(2));
+        SearchKey later = SearchKey.of(null, null, null, NOON.plusHours(5), NOON.plusHours(6));
+        SearchKey tooCheap = SearchKey.of(null, null, 10.0, NOON, NOON.plusHours(2));
+        SearchKey noWindow = SearchKey.of(null, null, null, null, null);
+        for (SearchKey key : List.of(overlapping, later, tooCheap, noWindow)) {
+            cache.get(key, this::load);
+        }
+
+        cache.onBookingChanged(new BookingChanged(7L, new SpotTraits(true, 20.0, null, null), NOON.plusHours(1), NOON.plusHours(3)));
+
+        assertEquals(3, cache.size());
+        cache.get(overlapping, this::load);
+        assertEquals(5, loads.get());
+
+        // Editing a spot evicts every query its old or new traits match, windowed or not
+        cache.onSpotChanged(new SpotChanged(7L, new SpotTraits(false, 8.0, null, null), new SpotTraits(false, 25.0, null, null)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_ShouldShareOneLoadAndNotStoreAResultThatRacedAnInvalidation() throws Exception {
+        SearchKey key = SearchKey.of(null, null, null, null, null);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Results> leader = CompletableFuture.supplyAsync(() -> cache.get(key, () -> {
+            loading.countDown();
+            await(release);
+            return load();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Results> follower = CompletableFuture.supplyAsync(() -> cache.get(key, this::load));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+
+        // Same race, but the spot changes while the query runs: the result must not be cached
+        CountDownLatch loading2 = new CountDownLatch(1);
+        CountDownLatch release2 = new CountDownLatch(1);
+        cache.onSpotChanged(new SpotChanged(7L, null, new SpotTraits(true, 5.0, null, null))); // drop the entry cached above
+        CompletableFuture<Results> racing = CompletableFuture.supplyAsync(() -> cache.get(key, () -> {
+            loading2.countDown();
+            await(release2);
+            return load();
+        }));
+        assertTrue(loading2.await(5, TimeUnit.SECONDS));
+        cache.onSpotChanged(new SpotChanged(7L, null, new SpotTraits(true, 5.0, null, null)));
+        release2.countDown();
+        racing.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, cache.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -12,9 +12,13 @@ import com.example.demo.repository.ParkingRatingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,6 +32,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +48,9 @@ class ParkingServiceTest {
     @Mock
     private ParkingRatingRepository parkingRatingRepository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private ParkingService parkingService;
 
@@ -204,4 +213,18 @@ class ParkingServiceTest {
         List<Parking> expensive = parkingService.search(null, 15.0, 25.0);
         assertEquals(1, expensive.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchTop_ShouldLetTheDatabaseSortAndLimit() {
+        when(parkingRepository.searchActive(eq(true), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(parking));
+
+        List<Parking> result = parkingService.searchTop(true, null, null, null, null, ParkingRanker.SortBy.RATING, 5);
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(parkingRepository).searchActive(eq(true), isNull(), isNull(), page.capture());
+        assertEquals(1, result.size());
+        assertEquals(5, page.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "averageRating").and(Sort.by("id")), page.getValue().getSort());
+        verify(parkingRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SpotLocation;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import com.example.demo.service.SearchInvalidationEvents.SpotTraits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParkingTileServiceTest {
+
+    @Mock
+    private ParkingRepository parkingRepository;
+
+    private ParkingTileService service() {
+        return new ParkingTileService(parkingRepository, new SimpleMeterRegistry(), 10, 20, 100, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void tileXY_ShouldFollowTheWebMercatorScheme() {
+        // Tel Aviv and Haifa at z10
+        assertEquals(610, ParkingTileService.tileX(10, 34.78));
+        assertEquals(415, ParkingTileService.tileY(10, 32.08));
+        assertEquals(611, ParkingTileService.tileX(10, 34.99));
+        assertEquals(413, ParkingTileService.tileY(10, 32.794));
+        assertEquals(0, ParkingTileService.tileY(3, 89.9)); // beyond the Mercator limit
+    }
+
+    @Test
+    void tile_ShouldCacheAndOnlyDropTilesHoldingAChangedSpot() {
+        ParkingTileService tiles = service();
+        SpotLocation telAviv = new SpotLocation(1L, 32.08, 34.78, 20);
+        SpotLocation haifa = new SpotLocation(2L, 32.794, 34.99, 15);
+        when(parkingRepository.findMapLocationsWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(telAviv, haifa));
+
+        ParkingTileService.Tile first = tiles.tile(10, 610, 415);
+        assertEquals(List.of(telAviv), first.spots()); // haifa is returned by the box query but lies in another tile
+        assertSame(first, tiles.tile(10, 610, 415));
+        tiles.tile(10, 611, 413);
+        verify(parkingRepository, times(2)).findMapLocationsWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+
+        // Repricing the Haifa spot leaves the Tel Aviv tile and its ETag alone
+        tiles.onSpotChanged(new SpotChanged(2L, new SpotTraits(false, 15, 32.794, 34.99),
+                new SpotTraits(false, 18, 32.794, 34.99)));
+        assertEquals(1, tiles.size());
+        assertSame(first, tiles.tile(10, 610, 415));
+
+        // Same content after a reload gives the same version
+        tiles.onSpotChanged(new SpotChanged(1L, new SpotTraits(true, 20, 32.08, 34.78), null));
+        assertEquals(0, tiles.size());
+        assertEquals(first.etag(), tiles.tile(10, 610, 415).etag());
+    }
+
+    @Test
+    void tile_ShouldRejectZoomsOutsideTheServedRange() {
+        ParkingTileService tiles = service();
+        assertThrows(ResponseStatusException.class, () -> tiles.tile(5, 0, 0));
+        assertThrows(ResponseStatusException.class, () -> tiles.tile(10, 1024, 0));
+        verifyNoInteractions(parkingRepository);
+    }
+}
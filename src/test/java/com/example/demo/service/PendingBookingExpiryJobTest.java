@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PendingBookingDeadline;
+import com.example.demo.model.Booking;
+import com.example.demo.model.Parking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.PendingBookingExpiryJob.PendingBookingCreated;
+import com.example.demo.service.SearchInvalidationEvents.BookingChanged;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingBookingExpiryJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PendingBookingExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new PendingBookingExpiryJob(bookingRepository, events, meterRegistry, true,
+                Duration.ofHours(24), Duration.ofMinutes(1), 64, 2);
+    }
+
+    private static Booking booking(Long id) {
+        Parking parking = new Parking();
+        parking.setId(10L);
+        parking.setPricePerHour(12.0);
+        Booking b = new Booking();
+        ReflectionTestUtils.setField(b, "id", id);
+        b.setParking(parking);
+        b.setStartTime(NOW.plusDays(3));
+        b.setEndTime(NOW.plusDays(3).plusHours(2));
+        return b;
+    }
+
+    @Test
+    void expireDue_ShouldExpireOnlyBookingsPastTheApprovalWindowInBatches() {
+        when(bookingRepository.findPendingDeadlines()).thenReturn(List.of(
+                new PendingBookingDeadline(1L, NOW.minusHours(30), NOW.plusDays(3)),
+                new PendingBookingDeadline(2L, NOW.minusHours(25), NOW.plusDays(3)),
+                new PendingBookingDeadline(3L, NOW.minusHours(1), NOW.plusMinutes(30)), // starts before its window ends
+                new PendingBookingDeadline(4L, NOW.minusHours(1), NOW.plusDays(3))));
+        job.reload();
+        when(bookingRepository.findPendingByIdIn(any())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            return ids.stream().map(PendingBookingExpiryJobTest::booking).toList();
+        });
+        when(bookingRepository.expirePending(any(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        assertEquals(2, job.expireDue(NOW.plusMinutes(1))); // overdue at reload: next tick
+        assertEquals(1, job.expireDue(NOW.plusMinutes(31)));
+
+        verify(bookingRepository, times(2)).expirePending(any(), any());
+        verify(events, times(3)).publishEvent(any(BookingChanged.class));
+        assertEquals(3.0, meterRegistry.get("easypark.bookings.expired").counter().count());
+        assertEquals(1.0, meterRegistry.get("easypark.bookings.pending.scheduled").gauge().value());
+    }
+
+    @Test
+    void expireDue_ShouldSkipBookingsNoLongerPending() {
+        job.onPendingBookingCreated(new PendingBookingCreated(5L, NOW.minusHours(2), NOW.plusMinutes(10)));
+        when(bookingRepository.findPendingByIdIn(List.of(5L))).thenReturn(List.of());
+
+        assertEquals(0, job.expireDue(NOW.plusMinutes(11)));
+
+        verify(bookingRepository, never()).expirePending(any(), any());
+        verifyNoInteractions(events);
+    }
+}
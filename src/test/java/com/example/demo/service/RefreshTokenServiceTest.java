@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.model.RefreshToken;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.security.TokenHashing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private RefreshToken stored(String raw, LocalDateTime expiresAt) {
+        User user = new User();
+        user.setId(5L);
+        RefreshToken token = new RefreshToken(user, TokenHashing.sha256(raw), "family-1", expiresAt);
+        ReflectionTestUtils.setField(token, "id", 11L);
+        return token;
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheHash() {
+        User user = new User();
+        user.setId(5L);
+
+        String raw = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(TokenHashing.sha256(raw), saved.getValue().getTokenHash());
+        assertNotEquals(raw, saved.getValue().getTokenHash());
+    }
+
+    @Test
+    void rotate_ShouldConsumeTokenAndIssueOneInTheSameFamily() {
+        RefreshToken current = stored("raw", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRevoked(eq(11L), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertEquals(5L, rotation.user().getId());
+        assertNotEquals("raw", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("family-1", saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    void rotate_ShouldRevokeFamilyWhenTokenWasAlreadyUsed() {
+        RefreshToken current = stored("raw", LocalDateTime.now().plusDays(1));
+        current.setRevokedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256("raw"))).thenReturn(Optional.of(current));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> refreshTokenService.rotate("raw"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_ShouldTreatALostRaceAsReuse() {
+        RefreshToken current = stored("raw", LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRevoked(eq(11L), any())).thenReturn(0);
+
+        assertThrows(ResponseStatusException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_ShouldRejectExpiredToken() {
+        RefreshToken current = stored("raw", LocalDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256("raw"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRevoked(eq(11L), any())).thenReturn(1);
+
+        assertThrows(ResponseStatusException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository, never()).save(any());
+    }
+}
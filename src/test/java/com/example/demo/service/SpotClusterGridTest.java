@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ClusterResponse;
+import com.example.demo.dto.SpotLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotClusterGridTest {
+
+    private final SpotClusterGrid grid = new SpotClusterGrid(0, 16);
+
+    @Test
+    void query_ShouldAggregateSpotsPerCellAndKeepMinPriceAcrossRemovals() {
+        // Two spots a few hundred metres apart in Tel Aviv, one in Haifa
+        grid.upsert(new SpotLocation(1L, 32.080, 34.780, 20));
+        grid.upsert(new SpotLocation(2L, 32.082, 34.782, 10));
+        grid.upsert(new SpotLocation(3L, 32.794, 34.990, 15));
+
+        // Country zoom: the two Tel Aviv spots share a cell
+        List<ClusterResponse> country = sorted(grid.query(8, 29.0, 33.0, 34.0, 36.0));
+        assertEquals(2, country.size());
+        ClusterResponse telAviv = country.get(0);
+        assertEquals(2, telAviv.getCount());
+        assertEquals(10, telAviv.getMinPrice());
+        assertEquals(32.081, telAviv.getLat(), 1e-9);
+        assertNull(telAviv.getParkingId());
+        assertEquals(3L, country.get(1).getParkingId());
+
+        // The cheaper spot goes inactive: the cell's min price falls back to the other one
+        grid.remove(2L);
+        ClusterResponse single = sorted(grid.query(8, 29.0, 33.0, 34.0, 36.0)).get(0);
+        assertEquals(1, single.getCount());
+        assertEquals(20, single.getMinPrice());
+        assertEquals(1L, single.getParkingId());
+    }
+
+    @Test
+    void upsert_ShouldMoveASpotBetweenCellsAndQueryOnlyTheBox() {
+        grid.upsert(new SpotLocation(1L, 32.080, 34.780, 20));
+        grid.upsert(new SpotLocation(1L, 32.794, 34.990, 25)); // moved to Haifa
+
+        assertEquals(1, grid.size());
+        assertTrue(grid.query(12, 32.0, 34.7, 32.2, 34.9).isEmpty());
+        List<ClusterResponse> haifa = grid.query(12, 32.7, 34.9, 32.9, 35.1);
+        assertEquals(1, haifa.size());
+        assertEquals(25, haifa.get(0).getMinPrice());
+    }
+
+    private static List<ClusterResponse> sorted(List<ClusterResponse> clusters) {
+        return clusters.stream().sorted(Comparator.comparingDouble(ClusterResponse::getLat)).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Parking;
+import com.example.demo.repository.ParkingRepository;
+import com.example.demo.service.SearchInvalidationEvents.SpotChanged;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotTextSearchServiceTest {
+
+    private static final SpotTextSearchService.Filters NONE =
+            new SpotTextSearchService.Filters(null, null, null, null, null, null, null);
+
+    @Mock
+    private ParkingRepository parkingRepository;
+
+    private SpotTextSearchService service;
+    private Map<Long, Parking> db;
+
+    private static Parking spot(long id, String location, String description, double price, boolean covered, double rating) {
+        Parking p = new Parking();
+        p.setId(id);
+        p.setLocation(location);
+        p.setDescription(description);
+        p.setPricePerHour(price);
+        p.setCovered(covered);
+        p.setAverageRating(rating);
+        return p;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        db = new HashMap<>(Map.of(
+                1L, spot(1L, "Herzl 5, Tel Aviv", "Gated, EV charger", 12, true, 4.5),
+                2L, spot(2L, "Dizengoff 50, Tel Aviv", "EV-charger in the basement", 25, true, 3.2),
+                3L, spot(3L, "Allenby 1, Tel Aviv", "Open lot", 8, false, 4.8)));
+        when(parkingRepository.findByActiveTrue()).thenAnswer(inv -> List.copyOf(db.values()));
+        lenient().when(parkingRepository.findAllById(any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(db::get).toList();
+        });
+        service = new SpotTextSearchService(parkingRepository, "", 100, "0-10;10-20;20-");
+        service.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.destroy();
+    }
+
+    @Test
+    void search_ShouldMatchAllWordsApplyFiltersAndCountFacetsOverAllMatches() {
+        SpotTextSearchService.Result ev = service.search("ev charger", NONE, 1);
+        assertEquals(2, ev.total());
+        assertEquals(1, ev.spots().size());
+        assertEquals(Map.of("covered", 2L, "uncovered", 0L), ev.facets().get("covered"));
+        assertEquals(1L, ev.facets().get("price").get("10-20"));
+        assertEquals(1L, ev.facets().get("price").get("20-"));
+
+        SpotTextSearchService.Result cheapEv = service.search("EV charger",
+                new SpotTextSearchService.Filters(null, null, 20.0, 4.0, null, null, null), 10);
+        assertEquals(List.of(1L), cheapEv.spots().stream().map(Parking::getId).toList());
+
+        assertEquals(3, service.search(null, NONE, 10).total());
+    }
+
+    @Test
+    void onSpotChanged_ShouldReindexOrDropTheSpot() {
+        Parking edited = spot(3L, "Allenby 1, Tel Aviv", "Gated lot", 8, false, 4.8);
+        db.put(3L, edited);
+        when(parkingRepository.findById(3L)).thenReturn(Optional.of(edited));
+        service.onSpotChanged(new SpotChanged(3L, null, null));
+        assertEquals(2, service.search("gated", NONE, 10).total());
+
+        when(parkingRepository.findById(1L)).thenReturn(Optional.empty());
+        service.onSpotChanged(new SpotChanged(1L, null, null));
+        assertEquals(List.of(3L), service.search("gated", NONE, 10).spots().stream().map(Parking::getId).toList());
+    }
+
+    @Test
+    void rebuild_ThatFailsHalfway_ShouldKeepTheIndexAsItWas() {
+        Parking broken = spot(0L, "Rothschild 1, Tel Aviv", "Gated", 10, true, 4.0);
+        broken.setLat(200.0); // out of range, so indexing it throws after the old documents were deleted
+        broken.setLng(34.0);
+        db.put(0L, broken); // indexed first
+        service.rebuild();
+        assertEquals(3, service.search(null, NONE, 10).total());
+
+        // A later update must not publish the failed rebuild's deletions either
+        Parking edited = spot(3L, "Allenby 1, Tel Aviv", "Gated lot", 8, false, 4.8);
+        when(parkingRepository.findById(3L)).thenReturn(Optional.of(edited));
+        service.onSpotChanged(new SpotChanged(3L, null, null));
+        assertEquals(3, service.search(null, NONE, 10).total());
+        assertEquals(2, service.search("gated", NONE, 10).total());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.PasswordResetTokenRepository;
+import com.example.demo.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenPurgeJobTest {
+
+    @Mock
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenPurgeJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new TokenPurgeJob(passwordResetTokenRepository, refreshTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+    }
+
+    @Test
+    void purge_ShouldDeleteInBoundedBatchesAndRecordMetrics() {
+        when(passwordResetTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        when(passwordResetTokenRepository.count()).thenReturn(7L);
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        job.purge();
+
+        verify(passwordResetTokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(passwordResetTokenRepository).deleteAllByIdInBatch(List.of(3L, 4L));
+        verify(passwordResetTokenRepository).deleteAllByIdInBatch(List.of(5L));
+        verify(refreshTokenRepository, never()).deleteAllByIdInBatch(any());
+
+        assertEquals(5.0, meterRegistry.get("easypark.tokens.purged").tag("table", "password_reset_tokens").counter().count());
+        assertEquals(7.0, meterRegistry.get("easypark.tokens.rows").tag("table", "password_reset_tokens").gauge().value());
+    }
+
+    @Test
+    void purge_ShouldStopAfterMaxBatches() {
+        ReflectionTestUtils.setField(job, "maxBatches", 2);
+        when(passwordResetTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(refreshTokenRepository.findExpiredIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        job.purge();
+
+        verify(passwordResetTokenRepository, times(2)).deleteAllByIdInBatch(any());
+    }
+}
@@ -4,10 +4,14 @@ import com.example.demo.dto.ChangePasswordRequest;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.RegisterRequest;
 import com.example.demo.dto.UserSummary;
+import com.example.demo.model.PasswordResetToken;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.PasswordResetTokenRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PasswordHashingService;
+import com.example.demo.security.TokenHashing;
+import com.example.demo.security.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,13 +19,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,13 +38,17 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordEncoder;
     @Mock
     private PasswordResetTokenRepository passwordResetTokenRepository;
     @Mock
     private GoogleAuthService googleAuthService;
     @Mock
     private EmailService emailService;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @InjectMocks
     private UserService userService;
@@ -69,11 +81,10 @@ class UserServiceTest {
         // גם אם נבקש DRIVER, המערכת אמורה לכפות BOTH לפי ההחלטה שלך
         req.setRole(Role.DRIVER);
 
-        when(userRepository.findByEmail(req.getEmail())).thenReturn(Optional.empty());
         when(passwordEncoder.encode("secret123")).thenReturn("hashed_secret_123");
 
         // כאן אנחנו מדמים את השמירה ומחזירים את האובייקט שנשמר עם ה-Role המעודכן
-        when(userRepository.save(any(User.class))).thenAnswer(i -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(i -> {
             User u = i.getArgument(0);
             u.setId(99L);
             return u;
@@ -89,8 +100,9 @@ class UserServiceTest {
         // --- התיקון: מצפים ל-BOTH בהתאם ללוגיקה ב-Service ---
         assertEquals(Role.BOTH, result.getRole());
 
-        // Verify save was called
-        verify(userRepository).save(any(User.class));
+        // Verify save was called (a single INSERT, no existence check first)
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).findByEmailNormalized(any());
     }
 
     @Test
@@ -100,11 +112,12 @@ class UserServiceTest {
         req.setEmail("test@example.com");
         req.setRole(Role.DRIVER);
 
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        // The unique index on email_normalized rejects the insert
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> userService.register(req));
-        verify(userRepository, never()).save(any());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> userService.register(req));
+        assertEquals("Email already in use", ex.getMessage());
     }
 
     // --- Login Tests ---
@@ -116,7 +129,7 @@ class UserServiceTest {
         req.setEmail("test@example.com");
         req.setPassword("rawPassword");
 
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("rawPassword", user.getPasswordHash())).thenReturn(true);
 
         // Act
@@ -127,6 +140,18 @@ class UserServiceTest {
         assertEquals(user.getEmail(), result.getEmail());
     }
 
+    @Test
+    void login_ShouldLookUpTheNormalizedEmail() {
+        LoginRequest req = new LoginRequest();
+        req.setEmail("  Test@Example.COM ");
+        req.setPassword("rawPassword");
+
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("rawPassword", user.getPasswordHash())).thenReturn(true);
+
+        assertEquals(user.getId(), userService.login(req).getId());
+    }
+
     @Test
     void login_ShouldFail_WhenPasswordIncorrect() {
         // Arrange
@@ -134,7 +159,7 @@ class UserServiceTest {
         req.setEmail("test@example.com");
         req.setPassword("wrongPassword");
 
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("wrongPassword", user.getPasswordHash())).thenReturn(false);
 
         // Act & Assert
@@ -142,6 +167,73 @@ class UserServiceTest {
         assertEquals("Invalid email or password", ex.getMessage());
     }
 
+    @Test
+    void login_ShouldRehashPassword_WhenCostWasRaised() {
+        LoginRequest req = new LoginRequest();
+        req.setEmail("test@example.com");
+        req.setPassword("rawPassword");
+
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("rawPassword", "encoded_password_123")).thenReturn(true);
+        when(passwordEncoder.needsRehash("encoded_password_123")).thenReturn(true);
+        when(passwordEncoder.encode("rawPassword")).thenReturn("stronger_hash");
+        when(userRepository.upgradePasswordHash(1L, "encoded_password_123", "stronger_hash")).thenReturn(1);
+
+        User result = userService.login(req);
+
+        assertEquals("stronger_hash", result.getPasswordHash());
+    }
+
+    @Test
+    void login_ShouldStillSucceed_WhenRehashCannotRun() {
+        LoginRequest req = new LoginRequest();
+        req.setEmail("test@example.com");
+        req.setPassword("rawPassword");
+
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("rawPassword", "encoded_password_123")).thenReturn(true);
+        when(passwordEncoder.needsRehash("encoded_password_123")).thenReturn(true);
+        when(passwordEncoder.encode("rawPassword"))
+                .thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "busy"));
+
+        User result = userService.login(req);
+
+        assertEquals("encoded_password_123", result.getPasswordHash());
+        verify(userRepository, never()).upgradePasswordHash(any(), any(), any());
+    }
+
+    // --- Reset Token Tests ---
+
+    @Test
+    void createPasswordResetToken_ShouldStoreOnlyTheHashOfTheEmailedToken() {
+        ReflectionTestUtils.setField(userService, "resetPasswordUrl", "http://app/reset");
+        when(userRepository.findByEmailNormalized("test@example.com")).thenReturn(Optional.of(user));
+
+        userService.createPasswordResetToken("test@example.com");
+
+        ArgumentCaptor<PasswordResetToken> saved = ArgumentCaptor.forClass(PasswordResetToken.class);
+        verify(passwordResetTokenRepository).save(saved.capture());
+        ArgumentCaptor<String> link = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendPasswordResetEmail(eq("test@example.com"), link.capture());
+
+        String rawToken = link.getValue().substring("http://app/reset?token=".length());
+        assertEquals(TokenHashing.sha256(rawToken), saved.getValue().getTokenHash());
+        assertFalse(link.getValue().contains(saved.getValue().getTokenHash()));
+    }
+
+    @Test
+    void resetPasswordWithToken_ShouldLookUpByHashAndExpireTheToken() {
+        PasswordResetToken token = new PasswordResetToken(user, TokenHashing.sha256("raw"), LocalDateTime.now().plusMinutes(5));
+        when(passwordResetTokenRepository.findByTokenHash(TokenHashing.sha256("raw"))).thenReturn(Optional.of(token));
+        when(passwordEncoder.encode("newPassword1")).thenReturn("new_hash");
+
+        userService.resetPasswordWithToken("raw", "newPassword1");
+
+        assertTrue(token.isUsed());
+        assertFalse(token.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertEquals("new_hash", user.getPasswordHash());
+    }
+
     // --- Change Password Tests ---
 
     @Test